@@ -10,7 +10,7 @@
  ******************************************************************************/
 package se.weightpoint.jslint.ui.internal;
 
-import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
@@ -18,20 +18,28 @@ import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
+import se.weightpoint.jslint.ui.internal.builder.ResultCacheSaveParticipant;
+
 
 public class Activator extends AbstractUIPlugin {
 
   public static final String PLUGIN_ID = "se.weightpoint.jslint.ui"; //$NON-NLS-1$
   private static Activator instance;
+  private ResultCacheSaveParticipant saveParticipant;
 
   @Override
   public void start( BundleContext context ) throws Exception {
     super.start( context );
     instance = this;
+    saveParticipant = new ResultCacheSaveParticipant();
+    ResourcesPlugin.getWorkspace().addSaveParticipant( PLUGIN_ID, saveParticipant );
   }
 
   @Override
   public void stop( BundleContext context ) throws Exception {
+    ResourcesPlugin.getWorkspace().removeSaveParticipant( PLUGIN_ID );
+    // results added since the last workspace save would be lost otherwise
+    saveParticipant.save();
     instance = null;
     super.stop( context );
   }
@@ -56,7 +64,7 @@ public class Activator extends AbstractUIPlugin {
     return imageDescriptorFromPlugin( PLUGIN_ID, path );
   }
 
-  public static void logError( String message, CoreException exception ) {
+  public static void logError( String message, Exception exception ) {
     Status status = new Status( IStatus.ERROR, PLUGIN_ID, message, exception );
     Platform.getLog( getDefault().getBundle() ).log( status );
   }
@@ -34,6 +34,10 @@ public class BuilderUtil {
     project.build( IncrementalProjectBuilder.FULL_BUILD, builderName, null, null );
   }
 
+  public static boolean hasBuilder( IProject project, String builderId ) throws CoreException {
+    return containsBuildCommand( project.getDescription(), builderId );
+  }
+
   public static boolean addBuilderToProject( IProject project, String builderId )
       throws CoreException
   {
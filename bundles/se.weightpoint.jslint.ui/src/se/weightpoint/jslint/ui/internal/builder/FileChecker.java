@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.builder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import se.weightpoint.jslint.ui.internal.Activator;
+import se.weightpoint.jslint.ui.internal.preferences.ProjectSettings;
+
+import se.weightpoint.jslint.CheckMonitor;
+import se.weightpoint.jslint.JSLint;
+import se.weightpoint.jslint.JSLintPool;
+import se.weightpoint.jslint.Problem;
+import se.weightpoint.jslint.ProblemHandler;
+import se.weightpoint.jslint.Text;
+import se.weightpoint.jslint.internal.JsonConverter;
+import se.weightpoint.jslint.json.JsonObject;
+
+
+/**
+ * Checks files of a project with JSLint. Files are checked concurrently, using a worker thread
+ * for every available processor. The problems found are collected and returned, no markers are
+ * created by this class.
+ */
+class FileChecker {
+
+  // maximum time to spend on a single file
+  static final long TIME_LIMIT = 30000;
+  private final IProject project;
+  private final int threadCount;
+  private final ResultCache cache;
+
+  FileChecker( IProject project ) {
+    this( project, Runtime.getRuntime().availableProcessors(), ResultCache.getDefault() );
+  }
+
+  FileChecker( IProject project, int threadCount, ResultCache cache ) {
+    this.project = project;
+    this.threadCount = threadCount;
+    this.cache = cache;
+  }
+
+  /**
+   * Checks the given files. Files whose content has been checked before with the same library
+   * and configuration get their problems from the result cache. Files that have not been checked
+   * because the monitor has been cancelled are not included in the result. The check of a single
+   * file is aborted when it exceeds the time limit, this is reported as a problem of the file.
+   *
+   * @param files
+   *          the files to check
+   * @param monitor
+   *          the progress monitor to check for cancellation
+   * @return the check results in the order of the given files
+   */
+  List<CheckResult> check( List<IFile> files, IProgressMonitor monitor ) throws CoreException {
+    if( files.isEmpty() ) {
+      return Collections.emptyList();
+    }
+    ProjectSettings settings = ProjectSettings.get( project );
+    JsonObject configuration = settings.getConfiguration();
+    int poolSize = Math.min( threadCount, files.size() );
+    JSLintPool pool = createPool( poolSize, configuration, settings.getCustomLibPath() );
+    // the canonical form does not depend on the order of the options
+    String context = pool.getLibraryChecksum() + JsonConverter.toCanonicalString( configuration );
+    if( pool.getMaxSize() == 1 ) {
+      return checkSequentially( pool, context, files, monitor );
+    }
+    return checkConcurrently( pool, context, files, monitor );
+  }
+
+  private List<CheckResult> checkSequentially( JSLintPool pool,
+                                               String context,
+                                               List<IFile> files,
+                                               IProgressMonitor monitor )
+      throws CoreException
+  {
+    List<CheckResult> results = new ArrayList<CheckResult>( files.size() );
+    for( IFile file : files ) {
+      CheckResult result = new CheckTask( pool, cache, context, file, monitor ).call();
+      if( result != null ) {
+        results.add( result );
+      }
+    }
+    return results;
+  }
+
+  private List<CheckResult> checkConcurrently( JSLintPool pool,
+                                               String context,
+                                               List<IFile> files,
+                                               IProgressMonitor monitor )
+      throws CoreException
+  {
+    ExecutorService executor = Executors.newFixedThreadPool( pool.getMaxSize() );
+    try {
+      List<Future<CheckResult>> futures = new ArrayList<Future<CheckResult>>( files.size() );
+      for( IFile file : files ) {
+        futures.add( executor.submit( new CheckTask( pool, cache, context, file, monitor ) ) );
+      }
+      List<CheckResult> results = new ArrayList<CheckResult>( files.size() );
+      for( Future<CheckResult> future : futures ) {
+        CheckResult result = getResult( future );
+        if( result != null ) {
+          results.add( result );
+        }
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static CheckResult getResult( Future<CheckResult> future ) throws CoreException {
+    try {
+      return future.get();
+    } catch( InterruptedException exception ) {
+      Thread.currentThread().interrupt();
+      String message = "Interrupted while checking files";
+      throw new CoreException( new Status( IStatus.CANCEL, Activator.PLUGIN_ID, message, exception ) );
+    } catch( ExecutionException exception ) {
+      Throwable cause = exception.getCause();
+      if( cause instanceof CoreException ) {
+        throw ( CoreException )cause;
+      }
+      if( cause instanceof RuntimeException ) {
+        throw ( RuntimeException )cause;
+      }
+      throw new RuntimeException( cause );
+    }
+  }
+
+  private static JSLintPool createPool( int size, JsonObject configuration, String customLibPath )
+      throws CoreException
+  {
+    JSLintPool pool = new JSLintPool( size );
+    try {
+      if( customLibPath != null ) {
+        InputStream inputStream = new FileInputStream( new File( customLibPath ) );
+        try {
+          pool.load( inputStream );
+        } finally {
+          inputStream.close();
+        }
+      } else {
+        pool.load();
+      }
+      pool.configure( configuration );
+    } catch( IOException exception ) {
+      String message = "Failed to intialize JSLint";
+      throw new CoreException( new Status( IStatus.ERROR, Activator.PLUGIN_ID, message, exception ) );
+    }
+    return pool;
+  }
+
+  private static Text readContent( IFile file ) throws CoreException {
+    try {
+      InputStream inputStream = file.getContents();
+      String charset = file.getCharset();
+      return readContent( inputStream, charset );
+    } catch( IOException exception ) {
+      String message = "Failed to read resource";
+      throw new CoreException( new Status( IStatus.ERROR, Activator.PLUGIN_ID, message, exception ) );
+    }
+  }
+
+  private static Text readContent( InputStream inputStream, String charset )
+      throws UnsupportedEncodingException, IOException
+  {
+    Text result;
+    BufferedReader reader = new BufferedReader( new InputStreamReader( inputStream, charset ) );
+    try {
+      result = new Text( reader );
+    } finally {
+      reader.close();
+    }
+    return result;
+  }
+
+  /**
+   * The result of checking a single file.
+   */
+  static class CheckResult {
+
+    final IFile file;
+    final Text text;
+    final List<Problem> problems;
+
+    CheckResult( IFile file, Text text, List<Problem> problems ) {
+      this.file = file;
+      this.text = text;
+      this.problems = problems;
+    }
+
+  }
+
+  private static class CheckTask implements Callable<CheckResult> {
+
+    private final JSLintPool pool;
+    private final ResultCache cache;
+    private final String context;
+    private final IFile file;
+    private final IProgressMonitor monitor;
+
+    CheckTask( JSLintPool pool,
+               ResultCache cache,
+               String context,
+               IFile file,
+               IProgressMonitor monitor )
+    {
+      this.pool = pool;
+      this.cache = cache;
+      this.context = context;
+      this.file = file;
+      this.monitor = monitor;
+    }
+
+    public CheckResult call() throws CoreException {
+      if( monitor.isCanceled() ) {
+        return null;
+      }
+      Text text = readContent( file );
+      String key = ResultCache.createKey( context, text.getContent() );
+      List<Problem> cachedProblems = cache.get( key );
+      if( cachedProblems != null ) {
+        return new CheckResult( file, text, cachedProblems );
+      }
+      List<Problem> problems = new ArrayList<Problem>();
+      boolean aborted = check( text, problems );
+      if( monitor.isCanceled() ) {
+        return null;
+      }
+      // results of aborted checks are incomplete and must not be cached
+      return new CheckResult( file, text, aborted ? problems : cache.put( key, problems ) );
+    }
+
+    private boolean check( Text text, final List<Problem> problems ) throws CoreException {
+      ProblemHandler handler = new ProblemHandler() {
+        public void handleProblem( Problem problem ) {
+          problems.add( problem );
+        }
+      };
+      CheckMonitor checkMonitor = new CheckMonitor() {
+        public boolean isCanceled() {
+          return monitor.isCanceled();
+        }
+      };
+      JSLint checker = borrow();
+      try {
+        checker.setTimeLimit( TIME_LIMIT );
+        checker.check( text, handler, checkMonitor );
+        return checker.wasAborted();
+      } catch( RuntimeException exception ) {
+        String message = "Failed checking file " + file.getFullPath().toPortableString();
+        throw new RuntimeException( message, exception );
+      } finally {
+        pool.release( checker );
+      }
+    }
+
+    private JSLint borrow() throws CoreException {
+      try {
+        return pool.borrow();
+      } catch( InterruptedException exception ) {
+        Thread.currentThread().interrupt();
+        String message = "Interrupted while checking files";
+        throw new CoreException( new Status( IStatus.CANCEL, Activator.PLUGIN_ID, message, exception ) );
+      }
+    }
+
+  }
+
+}
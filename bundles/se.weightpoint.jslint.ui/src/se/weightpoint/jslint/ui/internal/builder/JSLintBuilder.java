@@ -10,15 +10,19 @@
  ******************************************************************************/
 package se.weightpoint.jslint.ui.internal.builder;
 
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 import se.weightpoint.jslint.ui.internal.Activator;
+import se.weightpoint.jslint.ui.internal.builder.FileChecker.CheckResult;
 
 
 public class JSLintBuilder extends IncrementalProjectBuilder {
@@ -49,15 +53,36 @@ public class JSLintBuilder extends IncrementalProjectBuilder {
   }
 
   private void fullBuild( IProgressMonitor monitor ) throws CoreException {
-    IProject project = getProject();
-    getProject().accept( new JSLintBuilderVisitor( project, monitor ) );
+    checkProject( getProject(), monitor );
   }
 
   private void incrementalBuild( IResourceDelta delta, IProgressMonitor monitor )
       throws CoreException
   {
     IProject project = getProject();
-    delta.accept( new JSLintBuilderVisitor( project, monitor ) );
+    JSLintBuilderVisitor visitor = new JSLintBuilderVisitor( project, monitor );
+    delta.accept( visitor );
+    checkFiles( project, visitor, monitor );
+  }
+
+  /**
+   * Checks all files of the given project and updates their markers.
+   */
+  static void checkProject( IProject project, IProgressMonitor monitor ) throws CoreException {
+    JSLintBuilderVisitor visitor = new JSLintBuilderVisitor( project, monitor );
+    project.accept( visitor );
+    checkFiles( project, visitor, monitor );
+  }
+
+  private static void checkFiles( IProject project,
+                                  JSLintBuilderVisitor visitor,
+                                  IProgressMonitor monitor ) throws CoreException
+  {
+    List<CheckResult> results = new FileChecker( project ).check( visitor.getSelectedFiles(),
+                                                                  monitor );
+    MarkerUpdater updater = new MarkerUpdater( visitor.getExcludedResources(), results );
+    IWorkspace workspace = ResourcesPlugin.getWorkspace();
+    workspace.run( updater, project, IWorkspace.AVOID_UPDATE, monitor );
   }
 
   static class CoreExceptionWrapper extends RuntimeException {
@@ -10,14 +10,8 @@
  ******************************************************************************/
 package se.weightpoint.jslint.ui.internal.builder;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -27,40 +21,33 @@ import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.IResourceVisitor;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.osgi.service.prefs.Preferences;
 
-import se.weightpoint.jslint.ui.internal.Activator;
-import se.weightpoint.jslint.ui.internal.builder.JSLintBuilder.CoreExceptionWrapper;
-import se.weightpoint.jslint.ui.internal.preferences.EnablementPreferences;
-import se.weightpoint.jslint.ui.internal.preferences.JSLintPreferences;
-import se.weightpoint.jslint.ui.internal.preferences.OptionsPreferences;
-import se.weightpoint.jslint.ui.internal.preferences.PreferencesFactory;
+import se.weightpoint.jslint.ui.internal.preferences.ProjectSettings;
 import se.weightpoint.jslint.ui.internal.preferences.ResourceSelector;
 
-import se.weightpoint.jslint.JSLint;
-import se.weightpoint.jslint.ProblemHandler;
-import se.weightpoint.jslint.Text;
-import se.weightpoint.jslint.json.JsonObject;
-
 
+/**
+ * Collects the files to check. Files are only collected, the check itself is left to the caller.
+ */
 class JSLintBuilderVisitor implements IResourceVisitor, IResourceDeltaVisitor {
 
-  private final JSLint checker;
   private final ResourceSelector selector;
+  private final List<IFile> selectedFiles;
+  private final List<IResource> excludedResources;
   private IProgressMonitor monitor;
 
   public JSLintBuilderVisitor( IProject project, IProgressMonitor monitor ) throws CoreException {
-    Preferences node = PreferencesFactory.getProjectPreferences( project );
-    new EnablementPreferences( node );
-    selector = new ResourceSelector( project );
-    checker = selector.allowVisitProject() ? createJSLint( getConfiguration( project ) ) : null;
+    selector = ProjectSettings.get( project ).getSelector();
+    selectedFiles = new ArrayList<IFile>();
+    excludedResources = new ArrayList<IResource>();
     this.monitor = monitor;
   }
 
   public boolean visit( IResourceDelta delta ) throws CoreException {
     IResource resource = delta.getResource();
+    if( resource.getType() == IResource.FILE && !isCheckRequired( delta ) ) {
+      return false;
+    }
     return visit( resource );
   }
 
@@ -69,10 +56,15 @@ class JSLintBuilderVisitor implements IResourceVisitor, IResourceDeltaVisitor {
     if( resource.exists() && selector.allowVisitProject() && !monitor.isCanceled() ) {
       if( resource.getType() != IResource.FILE ) {
         descend = selector.allowVisitFolder( resource );
+        if( !descend ) {
+          // the folder is skipped, markers in the entire subtree are obsolete
+          excludedResources.add( resource );
+        }
       } else {
-        clean( resource );
         if( selector.allowVisitFile( resource ) ) {
-          check( (IFile)resource );
+          selectedFiles.add( ( IFile )resource );
+        } else {
+          excludedResources.add( resource );
         }
         descend = true;
       }
@@ -80,89 +72,33 @@ class JSLintBuilderVisitor implements IResourceVisitor, IResourceDeltaVisitor {
     return descend;
   }
 
-  private JSLint createJSLint( JsonObject configuration ) throws CoreException {
-      JSLint jslint = new JSLint();
-    try {
-      InputStream inputStream = getCustomLib();
-      if( inputStream != null ) {
-        try {
-          jslint.load( inputStream );
-        } finally {
-          inputStream.close();
-        }
-      } else {
-        jslint.load();
-      }
-      jslint.configure( configuration );
-    } catch( IOException exception ) {
-      String message = "Failed to intialize JSLint";
-      throw new CoreException( new Status( IStatus.ERROR, Activator.PLUGIN_ID, message, exception ) );
-    }
-    return jslint;
-  }
-
-  private void check( IFile file ) throws CoreException {
-    Text code = readContent( file );
-    ProblemHandler handler = new MarkerHandler( new MarkerAdapter( file ), code );
-    try {
-      checker.check( code, handler );
-    } catch( CoreExceptionWrapper wrapper ) {
-      throw (CoreException)wrapper.getCause();
-    } catch( RuntimeException exception ) {
-      String message = "Failed checking file " + file.getFullPath().toPortableString();
-      throw new RuntimeException( message, exception );
+  private static boolean isCheckRequired( IResourceDelta delta ) {
+    // Markers of removed files are removed by the workspace, changes that do not affect the
+    // content, like marker changes or touches, do not require a new check
+    int kind = delta.getKind();
+    if( kind == IResourceDelta.ADDED ) {
+      return true;
     }
-  }
-
-  private static JsonObject getConfiguration( IProject project ) {
-    JsonObject configuration;
-    Preferences projectNode = PreferencesFactory.getProjectPreferences( project );
-    OptionsPreferences projectPreferences = new OptionsPreferences( projectNode );
-    if( projectPreferences.getProjectSpecific() ) {
-      configuration = projectPreferences.getConfiguration();
-    } else {
-      Preferences workspaceNode = PreferencesFactory.getWorkspacePreferences();
-      OptionsPreferences workspacePreferences = new OptionsPreferences( workspaceNode );
-      configuration = workspacePreferences.getConfiguration();
+    if( kind == IResourceDelta.CHANGED ) {
+      return ( delta.getFlags() & ( IResourceDelta.CONTENT | IResourceDelta.ENCODING ) ) != 0;
     }
-    return configuration;
+    return false;
   }
 
-  private static void clean( IResource resource ) throws CoreException {
-    new MarkerAdapter( resource ).removeMarkers();
-  }
-
-  private static InputStream getCustomLib() throws FileNotFoundException {
-    JSLintPreferences globalPrefs = new JSLintPreferences();
-    if( globalPrefs.getUseCustomLib() ) {
-      File file = new File( globalPrefs.getCustomLibPath() );
-      return new FileInputStream( file );
-    }
-    return null;
+  /**
+   * Returns the visited files that are selected for checking.
+   */
+  public List<IFile> getSelectedFiles() {
+    return selectedFiles;
   }
 
-  private static Text readContent( IFile file ) throws CoreException {
-    try {
-      InputStream inputStream = file.getContents();
-      String charset = file.getCharset();
-      return readContent( inputStream, charset );
-    } catch( IOException exception ) {
-      String message = "Failed to read resource";
-      throw new CoreException( new Status( IStatus.ERROR, Activator.PLUGIN_ID, message, exception ) );
-    }
-  }
-
-  private static Text readContent( InputStream inputStream, String charset )
-      throws UnsupportedEncodingException, IOException
-  {
-    Text result;
-    BufferedReader reader = new BufferedReader( new InputStreamReader( inputStream, charset ) );
-    try {
-      result = new Text( reader );
-    } finally {
-      reader.close();
-    }
-    return result;
+  /**
+   * Returns the visited files that are not selected for checking and the folders that have been
+   * skipped because none of the files within can be selected. Markers on these resources are
+   * obsolete.
+   */
+  public List<IResource> getExcludedResources() {
+    return excludedResources;
   }
 
 }
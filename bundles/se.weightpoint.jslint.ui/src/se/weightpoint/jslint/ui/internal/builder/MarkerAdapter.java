@@ -17,8 +17,8 @@ import org.eclipse.core.runtime.CoreException;
 
 public class MarkerAdapter {
 
-  private static final String TYPE_PROBLEM = "se.weightpoint.jslint.ui.problemmarker";
-  private static final String TYPE_PROBLEM_OLD = "se.weightpoint.jslint.problemmarker";
+  static final String TYPE_PROBLEM = "se.weightpoint.jslint.ui.problemmarker";
+  static final String TYPE_PROBLEM_OLD = "se.weightpoint.jslint.problemmarker";
   private final IResource resource;
 
   public MarkerAdapter( IResource resource ) {
@@ -34,17 +34,39 @@ public class MarkerAdapter {
     if( message == null ) {
       throw new NullPointerException( "message is null" );
     }
-    IMarker marker = resource.createMarker( TYPE_PROBLEM );
-    marker.setAttribute( IMarker.SEVERITY, new Integer( IMarker.SEVERITY_WARNING ) );
-    marker.setAttribute( IMarker.MESSAGE, message );
+    // set all attributes at once, every single modification of a marker fires a resource change
+    String[] names = new String[ 5 ];
+    Object[] values = new Object[ 5 ];
+    int count = 0;
+    names[ count ] = IMarker.SEVERITY;
+    values[ count++ ] = Integer.valueOf( IMarker.SEVERITY_WARNING );
+    names[ count ] = IMarker.MESSAGE;
+    values[ count++ ] = message;
     if( line >= 1 ) {
       // needed to display line number in problems view location column
-      marker.setAttribute( IMarker.LINE_NUMBER, line );
+      names[ count ] = IMarker.LINE_NUMBER;
+      values[ count++ ] = Integer.valueOf( line );
     }
     if( start >= 0 ) {
-      marker.setAttribute( IMarker.CHAR_START, new Integer( start ) );
-      marker.setAttribute( IMarker.CHAR_END, new Integer( end >= start ? end : start ) );
+      names[ count ] = IMarker.CHAR_START;
+      values[ count++ ] = Integer.valueOf( start );
+      names[ count ] = IMarker.CHAR_END;
+      values[ count++ ] = Integer.valueOf( end >= start ? end : start );
     }
+    IMarker marker = resource.createMarker( TYPE_PROBLEM );
+    marker.setAttributes( trim( names, count ), trim( values, count ) );
+  }
+
+  private static String[] trim( String[] array, int length ) {
+    String[] result = new String[ length ];
+    System.arraycopy( array, 0, result, 0, length );
+    return result;
+  }
+
+  private static Object[] trim( Object[] array, int length ) {
+    Object[] result = new Object[ length ];
+    System.arraycopy( array, 0, result, 0, length );
+    return result;
   }
 
 }
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.builder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+
+
+/**
+ * A marker adapter that reconciles the markers of a resource with a new set of problems. Markers
+ * that already exist for a problem, identified by line, start position and message, are kept.
+ * Only markers for new problems are created, and only markers of problems that disappeared are
+ * removed by {@link #removeObsoleteMarkers()}.
+ */
+class MarkerReconciler extends MarkerAdapter {
+
+  private final IResource resource;
+  private final Map<String, List<IMarker>> existingMarkers;
+
+  MarkerReconciler( IResource resource ) throws CoreException {
+    super( resource );
+    this.resource = resource;
+    existingMarkers = new HashMap<String, List<IMarker>>();
+    for( IMarker marker : resource.findMarkers( TYPE_PROBLEM, true, IResource.DEPTH_ZERO ) ) {
+      String key = createKey( marker.getAttribute( IMarker.LINE_NUMBER, -1 ),
+                              marker.getAttribute( IMarker.CHAR_START, -1 ),
+                              marker.getAttribute( IMarker.MESSAGE, "" ) );
+      List<IMarker> markers = existingMarkers.get( key );
+      if( markers == null ) {
+        markers = new LinkedList<IMarker>();
+        existingMarkers.put( key, markers );
+      }
+      markers.add( marker );
+    }
+  }
+
+  @Override
+  public void createMarker( int line, int start, int end, String message ) throws CoreException {
+    if( message == null ) {
+      throw new NullPointerException( "message is null" );
+    }
+    List<IMarker> markers = existingMarkers.get( createKey( line, start, message ) );
+    if( markers != null && !markers.isEmpty() ) {
+      // keep the existing marker for this problem
+      markers.remove( 0 );
+    } else {
+      super.createMarker( line, start, end, message );
+    }
+  }
+
+  /**
+   * Removes all existing markers that have not been matched by a problem, including markers of
+   * the old type.
+   */
+  void removeObsoleteMarkers() throws CoreException {
+    List<IMarker> obsoleteMarkers = new ArrayList<IMarker>();
+    for( List<IMarker> markers : existingMarkers.values() ) {
+      obsoleteMarkers.addAll( markers );
+    }
+    existingMarkers.clear();
+    if( !obsoleteMarkers.isEmpty() ) {
+      IMarker[] array = obsoleteMarkers.toArray( new IMarker[ obsoleteMarkers.size() ] );
+      resource.getWorkspace().deleteMarkers( array );
+    }
+    resource.deleteMarkers( TYPE_PROBLEM_OLD, true, IResource.DEPTH_ZERO );
+  }
+
+  private static String createKey( int line, int start, String message ) {
+    int normalizedLine = line >= 1 ? line : -1;
+    int normalizedStart = start >= 0 ? start : -1;
+    return normalizedLine + ":" + normalizedStart + ":" + message;
+  }
+
+}
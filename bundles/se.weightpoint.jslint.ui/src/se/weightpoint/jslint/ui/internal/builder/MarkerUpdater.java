@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.builder;
+
+import java.util.List;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import se.weightpoint.jslint.ui.internal.builder.FileChecker.CheckResult;
+import se.weightpoint.jslint.ui.internal.builder.JSLintBuilder.CoreExceptionWrapper;
+
+import se.weightpoint.jslint.Problem;
+
+
+/**
+ * Updates the problem markers of checked files. Existing markers are reconciled with the problems
+ * found, so that only markers of changed problems are touched. Intended to be run as a single
+ * workspace operation, so that all marker changes result in a single resource change event.
+ */
+class MarkerUpdater implements IWorkspaceRunnable {
+
+  private final List<IResource> excludedResources;
+  private final List<CheckResult> results;
+
+  /**
+   * @param excludedResources
+   *          files and folders that have not been checked and whose markers are to be removed
+   * @param results
+   *          the results of the checked files
+   */
+  MarkerUpdater( List<IResource> excludedResources, List<CheckResult> results ) {
+    this.excludedResources = excludedResources;
+    this.results = results;
+  }
+
+  public void run( IProgressMonitor monitor ) throws CoreException {
+    for( IResource resource : excludedResources ) {
+      new MarkerAdapter( resource ).removeMarkers();
+    }
+    for( CheckResult result : results ) {
+      MarkerReconciler reconciler = new MarkerReconciler( result.file );
+      MarkerHandler handler = new MarkerHandler( reconciler, result.text );
+      try {
+        for( Problem problem : result.problems ) {
+          handler.handleProblem( problem );
+        }
+      } catch( CoreExceptionWrapper wrapper ) {
+        throw ( CoreException )wrapper.getCause();
+      }
+      reconciler.removeObsoleteMarkers();
+    }
+  }
+
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.builder;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import se.weightpoint.jslint.ui.internal.preferences.ProjectSettings;
+
+
+/**
+ * Re-checks projects in the background after their settings have changed. Requests that arrive
+ * within a short time are coalesced, so that a series of changes results in a single check per
+ * project. Every project is checked in a separate job that locks only this project, so that
+ * projects are checked in parallel. A check that is still running when a new request for the same
+ * project arrives is canceled.
+ */
+public class RecheckJob extends WorkspaceJob {
+
+  /**
+   * The job family of this job and all project check jobs scheduled by it.
+   */
+  public static final Object FAMILY = RecheckJob.class;
+  // time to wait for further requests before checks are started
+  static final long DELAY = 300;
+  private static final RecheckJob INSTANCE = new RecheckJob();
+
+  private final Set<IProject> pendingProjects;
+  private final Map<IProject, Job> projectJobs;
+
+  RecheckJob() {
+    super( "JSLint re-check" );
+    pendingProjects = new LinkedHashSet<IProject>();
+    projectJobs = new HashMap<IProject, Job>();
+    setSystem( true );
+  }
+
+  /**
+   * Requests a re-check of all projects in the workspace.
+   */
+  public static void recheckAll() {
+    recheck( ResourcesPlugin.getWorkspace().getRoot().getProjects() );
+  }
+
+  /**
+   * Requests a re-check of the given projects. Projects that are not accessible are ignored, the
+   * markers of projects that do not have the JSLint builder are removed.
+   *
+   * @param projects
+   *          the projects to re-check
+   */
+  public static void recheck( IProject... projects ) {
+    INSTANCE.addProjects( projects );
+  }
+
+  void addProjects( IProject... projects ) {
+    synchronized( pendingProjects ) {
+      for( IProject project : projects ) {
+        pendingProjects.add( project );
+      }
+    }
+    schedule( DELAY );
+  }
+
+  @Override
+  public IStatus runInWorkspace( IProgressMonitor monitor ) {
+    IProject[] projects;
+    synchronized( pendingProjects ) {
+      projects = pendingProjects.toArray( new IProject[ pendingProjects.size() ] );
+      pendingProjects.clear();
+    }
+    for( IProject project : projects ) {
+      scheduleProjectJob( project );
+    }
+    return Status.OK_STATUS;
+  }
+
+  @Override
+  public boolean belongsTo( Object family ) {
+    return family == FAMILY;
+  }
+
+  private void scheduleProjectJob( IProject project ) {
+    Job job = new ProjectCheckJob( project );
+    synchronized( projectJobs ) {
+      Job previousJob = projectJobs.put( project, job );
+      if( previousJob != null ) {
+        previousJob.cancel();
+      }
+    }
+    job.schedule();
+  }
+
+  private void projectJobDone( IProject project, Job job ) {
+    synchronized( projectJobs ) {
+      if( projectJobs.get( project ) == job ) {
+        projectJobs.remove( project );
+      }
+    }
+  }
+
+  private final class ProjectCheckJob extends WorkspaceJob {
+
+    private final IProject project;
+
+    ProjectCheckJob( IProject project ) {
+      super( "Checking " + project.getName() + " with JSLint" );
+      this.project = project;
+      setRule( project );
+    }
+
+    @Override
+    public IStatus runInWorkspace( IProgressMonitor monitor ) throws CoreException {
+      try {
+        if( project.isAccessible() ) {
+          checkProject( monitor );
+        }
+      } finally {
+        projectJobDone( project, this );
+      }
+      return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+    }
+
+    @Override
+    public boolean belongsTo( Object family ) {
+      return family == FAMILY;
+    }
+
+    private void checkProject( IProgressMonitor monitor ) throws CoreException {
+      if(    BuilderUtil.hasBuilder( project, JSLintBuilder.ID )
+          && ProjectSettings.get( project ).getSelector().allowVisitProject() )
+      {
+        JSLintBuilder.checkProject( project, monitor );
+      } else {
+        // JSLint is disabled for this project, all existing markers are obsolete
+        new MarkerAdapter( project ).removeMarkers();
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.builder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import se.weightpoint.jslint.ui.internal.Activator;
+
+import se.weightpoint.jslint.Problem;
+import se.weightpoint.jslint.json.JsonArray;
+import se.weightpoint.jslint.json.JsonObject;
+import se.weightpoint.jslint.json.JsonValue;
+
+
+/**
+ * Caches the problems found in a file by a hash of the file content, the configuration, and the
+ * JSLint library. Files that have not changed since their last check can get their problems from
+ * this cache without running JSLint again.
+ * <p>
+ * The cache keeps a limited number of entries and evicts the least recently used entries first.
+ * The default cache is persisted in the state location of this plug-in when the workspace is
+ * saved, see {@link ResultCacheSaveParticipant}.
+ * </p>
+ */
+class ResultCache {
+
+  static final int DEFAULT_MAX_SIZE = 10000;
+  private static final String FILE_NAME = "results.json";
+  private static final int FORMAT_VERSION = 1;
+  private static ResultCache defaultCache;
+
+  private final File file;
+  private final Map<String, List<Problem>> entries;
+  private boolean loaded;
+  private boolean dirty;
+
+  /**
+   * @param file
+   *          the file to persist the cache in, or <code>null</code> for a cache that is not
+   *          persisted
+   * @param maxSize
+   *          the maximum number of entries to keep
+   */
+  ResultCache( File file, final int maxSize ) {
+    this.file = file;
+    entries = new LinkedHashMap<String, List<Problem>>( 16, 0.75f, true ) {
+      private static final long serialVersionUID = 1L;
+      @Override
+      protected boolean removeEldestEntry( Entry<String, List<Problem>> eldest ) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the cache that is persisted in the state location of this plug-in.
+   */
+  static synchronized ResultCache getDefault() {
+    if( defaultCache == null ) {
+      Activator activator = Activator.getDefault();
+      File file = null;
+      if( activator != null ) {
+        file = activator.getStateLocation().append( FILE_NAME ).toFile();
+      }
+      defaultCache = new ResultCache( file, DEFAULT_MAX_SIZE );
+    }
+    return defaultCache;
+  }
+
+  /**
+   * Creates a cache key for the given content.
+   *
+   * @param context
+   *          a string that identifies the library and the configuration used to check the content
+   * @param content
+   *          the content to check
+   * @return the cache key
+   */
+  static String createKey( String context, String content ) {
+    MessageDigest digest = createDigest();
+    digest.update( toBytes( context ) );
+    digest.update( ( byte )0 );
+    digest.update( toBytes( content ) );
+    return toHexString( digest.digest() );
+  }
+
+  /**
+   * Returns the cached problems for the given key.
+   *
+   * @param key
+   *          the cache key
+   * @return the problems found in the content, or <code>null</code> if there is no entry for the
+   *         given key
+   */
+  synchronized List<Problem> get( String key ) {
+    ensureLoaded();
+    return entries.get( key );
+  }
+
+  /**
+   * Adds an entry to the cache.
+   *
+   * @param key
+   *          the cache key
+   * @param problems
+   *          the problems found in the content
+   * @return an unmodifiable copy of the given problems as stored in the cache
+   */
+  synchronized List<Problem> put( String key, List<Problem> problems ) {
+    ensureLoaded();
+    List<Problem> copy = new ArrayList<Problem>( problems.size() );
+    for( Problem problem : problems ) {
+      copy.add( new CachedProblem( problem.getLine(),
+                                   problem.getCharacter(),
+                                   problem.getMessage() ) );
+    }
+    List<Problem> result = Collections.unmodifiableList( copy );
+    entries.put( key, result );
+    dirty = true;
+    return result;
+  }
+
+  synchronized int size() {
+    ensureLoaded();
+    return entries.size();
+  }
+
+  /**
+   * Writes the cache to its file if it has been modified since it was last loaded or saved.
+   *
+   * @throws IOException
+   *           if the cache file could not be written
+   */
+  synchronized void save() throws IOException {
+    if( file == null || !dirty ) {
+      return;
+    }
+    File tmpFile = new File( file.getPath() + ".tmp" );
+    Writer writer = new BufferedWriter( new OutputStreamWriter( new FileOutputStream( tmpFile ),
+                                                                "UTF-8" ) );
+    try {
+      toJson().writeTo( writer );
+    } finally {
+      writer.close();
+    }
+    if( file.exists() && !file.delete() || !tmpFile.renameTo( file ) ) {
+      throw new IOException( "Could not replace cache file " + file );
+    }
+    dirty = false;
+  }
+
+  private void ensureLoaded() {
+    if( !loaded ) {
+      loaded = true;
+      if( file != null && file.exists() ) {
+        try {
+          load();
+        } catch( IOException exception ) {
+          entries.clear();
+        } catch( RuntimeException exception ) {
+          // corrupt cache file, start over with an empty cache
+          entries.clear();
+        }
+      }
+    }
+  }
+
+  private void load() throws IOException {
+    Reader reader = new BufferedReader( new InputStreamReader( new FileInputStream( file ),
+                                                               "UTF-8" ) );
+    try {
+      JsonObject json = JsonObject.readFrom( reader );
+      JsonValue version = json.get( "version" );
+      if( version != null && version.asInt() == FORMAT_VERSION ) {
+        for( JsonValue entry : json.get( "entries" ).asArray() ) {
+          JsonObject object = entry.asObject();
+          entries.put( object.get( "key" ).asString(), readProblems( object.get( "problems" ) ) );
+        }
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  private JsonObject toJson() {
+    JsonArray array = new JsonArray();
+    for( Entry<String, List<Problem>> entry : entries.entrySet() ) {
+      JsonObject object = new JsonObject();
+      object.add( "key", entry.getKey() );
+      object.add( "problems", writeProblems( entry.getValue() ) );
+      array.add( object );
+    }
+    return new JsonObject().add( "version", FORMAT_VERSION ).add( "entries", array );
+  }
+
+  private static List<Problem> readProblems( JsonValue value ) {
+    JsonArray array = value.asArray();
+    List<Problem> problems = new ArrayList<Problem>( array.size() );
+    for( JsonValue element : array ) {
+      JsonArray problem = element.asArray();
+      problems.add( new CachedProblem( problem.get( 0 ).asInt(),
+                                       problem.get( 1 ).asInt(),
+                                       problem.get( 2 ).asString() ) );
+    }
+    return Collections.unmodifiableList( problems );
+  }
+
+  private static JsonArray writeProblems( List<Problem> problems ) {
+    JsonArray array = new JsonArray();
+    for( Problem problem : problems ) {
+      array.add( new JsonArray().add( problem.getLine() )
+                                .add( problem.getCharacter() )
+                                .add( problem.getMessage() ) );
+    }
+    return array;
+  }
+
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance( "SHA-1" );
+    } catch( NoSuchAlgorithmException exception ) {
+      throw new RuntimeException( "SHA-1 not supported", exception );
+    }
+  }
+
+  private static byte[] toBytes( String string ) {
+    try {
+      return string.getBytes( "UTF-8" );
+    } catch( UnsupportedEncodingException exception ) {
+      throw new RuntimeException( "UTF-8 not supported", exception );
+    }
+  }
+
+  private static String toHexString( byte[] bytes ) {
+    StringBuilder builder = new StringBuilder( bytes.length * 2 );
+    for( byte b : bytes ) {
+      builder.append( Character.forDigit( ( b >> 4 ) & 0xf, 16 ) );
+      builder.append( Character.forDigit( b & 0xf, 16 ) );
+    }
+    return builder.toString();
+  }
+
+  private static class CachedProblem implements Problem {
+
+    private final int line;
+    private final int character;
+    private final String message;
+
+    CachedProblem( int line, int character, String message ) {
+      this.line = line;
+      this.character = character;
+      this.message = message;
+    }
+
+    public int getLine() {
+      return line;
+    }
+
+    public int getCharacter() {
+      return character;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+  }
+
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.builder;
+
+import java.io.IOException;
+
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+
+import se.weightpoint.jslint.ui.internal.Activator;
+
+
+/**
+ * Writes the result cache when the workspace is saved. Builds only modify the cache in memory,
+ * it is written on full workspace saves and on the periodic snapshots of the workspace, and only
+ * if it has been modified since it was last written.
+ */
+public class ResultCacheSaveParticipant implements ISaveParticipant {
+
+  private final ResultCache cache;
+
+  public ResultCacheSaveParticipant() {
+    this( null );
+  }
+
+  /**
+   * @param cache
+   *          the cache to save, or <code>null</code> for the default cache
+   */
+  ResultCacheSaveParticipant( ResultCache cache ) {
+    this.cache = cache;
+  }
+
+  public void prepareToSave( ISaveContext context ) {
+    // nothing to prepare
+  }
+
+  public void saving( ISaveContext context ) {
+    // the cache is shared by all projects and not affected by saving a single project
+    if( context.getKind() != ISaveContext.PROJECT_SAVE ) {
+      save();
+    }
+  }
+
+  public void doneSaving( ISaveContext context ) {
+    // nothing to clean up
+  }
+
+  public void rollback( ISaveContext context ) {
+    // the previous cache file is only replaced once the new one has been written
+  }
+
+  /**
+   * Writes the cache if it has been modified. Failures are logged, since a missing cache entry
+   * only causes a file to be checked again.
+   */
+  public void save() {
+    try {
+      getCache().save();
+    } catch( IOException exception ) {
+      Activator.logError( "Failed to save JSLint result cache", exception );
+    }
+  }
+
+  private ResultCache getCache() {
+    return cache != null ? cache : ResultCache.getDefault();
+  }
+
+}
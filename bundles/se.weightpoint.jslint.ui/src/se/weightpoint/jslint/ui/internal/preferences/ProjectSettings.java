@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.preferences;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
+import org.osgi.service.prefs.Preferences;
+
+import se.weightpoint.jslint.json.JsonObject;
+
+
+/**
+ * An immutable snapshot of the settings that are needed to check the files of a project: the
+ * resource selector, the JSLint configuration, and the JSLint library to use.
+ * <p>
+ * Snapshots are cached per project, so that subsequent builds do not have to read and parse the
+ * preferences again. A cached snapshot is discarded when the preferences of its project or the
+ * workspace preferences change, and when its project is closed or deleted.
+ * </p>
+ */
+public class ProjectSettings {
+
+  private static final Map<IProject, ProjectSettings> cache
+    = new ConcurrentHashMap<IProject, ProjectSettings>();
+  private static final Map<IProject, IEclipsePreferences> observedNodes
+    = new ConcurrentHashMap<IProject, IEclipsePreferences>();
+  // incremented on every change, to detect changes while a snapshot is created
+  private static final AtomicInteger modificationCount = new AtomicInteger();
+  private static boolean listenersAdded;
+
+  private final ResourceSelector selector;
+  private final JsonObject configuration;
+  private final String customLibPath;
+
+  private ProjectSettings( Preferences projectNode ) {
+    selector = new ResourceSelector( new EnablementPreferences( projectNode ) );
+    configuration = readConfiguration( projectNode );
+    JSLintPreferences globalPrefs = new JSLintPreferences();
+    customLibPath = globalPrefs.getUseCustomLib() ? globalPrefs.getCustomLibPath() : null;
+  }
+
+  /**
+   * Returns the current settings of the given project.
+   *
+   * @param project
+   *          the project to get the settings for
+   * @return the current settings, never <code>null</code>
+   */
+  public static ProjectSettings get( IProject project ) {
+    ProjectSettings settings = cache.get( project );
+    if( settings == null ) {
+      addListeners();
+      int count = modificationCount.get();
+      Preferences projectNode = PreferencesFactory.getProjectPreferences( project );
+      observe( project, projectNode );
+      settings = new ProjectSettings( projectNode );
+      cache.put( project, settings );
+      // discard the snapshot if preferences have changed while it was created
+      if( modificationCount.get() != count ) {
+        cache.remove( project );
+      }
+    }
+    return settings;
+  }
+
+  /**
+   * Returns the resource selector of the project.
+   */
+  public ResourceSelector getSelector() {
+    return selector;
+  }
+
+  /**
+   * Returns the JSLint configuration for the project, taken from either the project or the
+   * workspace preferences. The returned object is shared and must not be modified.
+   */
+  public JsonObject getConfiguration() {
+    return configuration;
+  }
+
+  /**
+   * Returns the path of the custom JSLint library to use.
+   *
+   * @return the path to the custom library, or <code>null</code> to use the default library
+   */
+  public String getCustomLibPath() {
+    return customLibPath;
+  }
+
+  private static JsonObject readConfiguration( Preferences projectNode ) {
+    OptionsPreferences projectPreferences = new OptionsPreferences( projectNode );
+    if( projectPreferences.getProjectSpecific() ) {
+      return projectPreferences.getConfiguration();
+    }
+    Preferences workspaceNode = PreferencesFactory.getWorkspacePreferences();
+    return new OptionsPreferences( workspaceNode ).getConfiguration();
+  }
+
+  private static void discard( IProject project ) {
+    modificationCount.incrementAndGet();
+    cache.remove( project );
+  }
+
+  private static void discardAll() {
+    modificationCount.incrementAndGet();
+    cache.clear();
+  }
+
+  private static synchronized void observe( final IProject project, Preferences projectNode ) {
+    // preference nodes are replaced when a project is closed and re-opened
+    if( observedNodes.get( project ) != projectNode ) {
+      IEclipsePreferences node = ( IEclipsePreferences )projectNode;
+      node.addPreferenceChangeListener( new IPreferenceChangeListener() {
+        public void preferenceChange( PreferenceChangeEvent event ) {
+          discard( project );
+        }
+      } );
+      observedNodes.put( project, node );
+    }
+  }
+
+  private static synchronized void addListeners() {
+    if( !listenersAdded ) {
+      IEclipsePreferences workspaceNode
+        = ( IEclipsePreferences )PreferencesFactory.getWorkspacePreferences();
+      workspaceNode.addPreferenceChangeListener( new IPreferenceChangeListener() {
+        public void preferenceChange( PreferenceChangeEvent event ) {
+          discardAll();
+        }
+      } );
+      IResourceChangeListener listener = new IResourceChangeListener() {
+        public void resourceChanged( IResourceChangeEvent event ) {
+          IProject project = ( IProject )event.getResource();
+          observedNodes.remove( project );
+          discard( project );
+        }
+      };
+      int eventMask = IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE;
+      ResourcesPlugin.getWorkspace().addResourceChangeListener( listener, eventMask );
+      listenersAdded = true;
+    }
+  }
+
+}
@@ -15,55 +15,36 @@ import java.util.List;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
-import org.osgi.service.prefs.Preferences;
+
+import se.weightpoint.jslint.internal.PathPattern;
+import se.weightpoint.jslint.internal.PathSelector;
 
 
 public class ResourceSelector {
 
-  private final List<PathPattern> includePatterns;
-  private final List<PathPattern> excludePatterns;
+  private final PathSelector selector;
 
   public ResourceSelector( IProject project ) {
-    Preferences preferenceNode = PreferencesFactory.getProjectPreferences( project );
-    EnablementPreferences preferences = new EnablementPreferences( preferenceNode );
-    includePatterns = createPatterns( preferences.getIncludePatterns() );
-    excludePatterns = createPatterns( preferences.getExcludePatterns() );
+    this( new EnablementPreferences( PreferencesFactory.getProjectPreferences( project ) ) );
+  }
+
+  ResourceSelector( EnablementPreferences preferences ) {
+    selector = PathSelector.create( createPatterns( preferences.getIncludePatterns() ),
+                                    createPatterns( preferences.getExcludePatterns() ) );
   }
 
   public boolean allowVisitProject() {
-    return !includePatterns.isEmpty();
+    return selector.hasIncludePatterns();
   }
 
   public boolean allowVisitFolder( IResource resource ) {
-    return !includePatterns.isEmpty();
+    return selector.selectsFolder( resource.getProjectRelativePath().segments() );
   }
 
   public boolean allowVisitFile( IResource resource ) {
     String[] pathSegments = resource.getParent().getProjectRelativePath().segments();
     String fileName = resource.getName();
-    return isFileIncluded( pathSegments, fileName ) && !isFileExcluded( pathSegments, fileName );
-  }
-
-  private boolean isFileIncluded( String[] parentSegments, String fileName ) {
-    for( PathPattern pattern : includePatterns ) {
-      if( pattern.matchesFolder( parentSegments ) ) {
-        if( pattern.matchesFile( fileName ) ) {
-          return true;
-        }
-      }
-    }
-    return false;
-  }
-
-  private boolean isFileExcluded( String[] parentSegments, String fileName ) {
-    for( PathPattern pattern : excludePatterns ) {
-      if( pattern.matchesFolder( parentSegments ) ) {
-        if( pattern.matchesFile( fileName ) ) {
-          return true;
-        }
-      }
-    }
-    return false;
+    return selector.selectsFile( pathSegments, fileName );
   }
 
   private static List<PathPattern> createPatterns( List<String> expressions ) {
@@ -13,8 +13,6 @@ package se.weightpoint.jslint.ui.internal.preferences.ui;
 import java.io.File;
 import java.io.FileInputStream;
 
-import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -40,8 +38,7 @@ import org.eclipse.ui.IWorkbenchPreferencePage;
 
 import se.weightpoint.jslint.JSLint;
 import se.weightpoint.jslint.ui.internal.Activator;
-import se.weightpoint.jslint.ui.internal.builder.BuilderUtil;
-import se.weightpoint.jslint.ui.internal.builder.JSLintBuilder;
+import se.weightpoint.jslint.ui.internal.builder.RecheckJob;
 import se.weightpoint.jslint.ui.internal.preferences.JSLintPreferences;
 
 
@@ -228,13 +225,8 @@ public class JSLintPreferencePage extends PreferencePage implements IWorkbenchPr
     customLibPathButton.setEnabled( useCustomLib );
   }
 
-  private void triggerRebuild() throws CoreException {
-    IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
-    for( IProject project : projects ) {
-      if( project.isAccessible() ) {
-        BuilderUtil.triggerClean( project, JSLintBuilder.ID );
-      }
-    }
+  private static void triggerRebuild() {
+    RecheckJob.recheckAll();
   }
 
   private static GridLayout createMainLayout() {
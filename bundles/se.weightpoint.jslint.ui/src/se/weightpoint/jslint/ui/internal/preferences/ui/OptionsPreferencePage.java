@@ -10,8 +10,6 @@
  ******************************************************************************/
 package se.weightpoint.jslint.ui.internal.preferences.ui;
 
-import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -27,8 +25,7 @@ import org.osgi.service.prefs.BackingStoreException;
 import org.osgi.service.prefs.Preferences;
 
 import se.weightpoint.jslint.ui.internal.Activator;
-import se.weightpoint.jslint.ui.internal.builder.BuilderUtil;
-import se.weightpoint.jslint.ui.internal.builder.JSLintBuilder;
+import se.weightpoint.jslint.ui.internal.builder.RecheckJob;
 import se.weightpoint.jslint.ui.internal.preferences.OptionsPreferences;
 import se.weightpoint.jslint.ui.internal.preferences.PreferencesFactory;
 
@@ -101,13 +98,8 @@ public class OptionsPreferencePage extends PreferencePage implements IWorkbenchP
     }
   }
 
-  private void triggerRebuild() throws CoreException {
-    IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
-    for( IProject project : projects ) {
-      if( project.isAccessible() ) {
-        BuilderUtil.triggerClean( project, JSLintBuilder.ID );
-      }
-    }
+  private static void triggerRebuild() {
+    RecheckJob.recheckAll();
   }
 
   private Preferences getPreferences() {
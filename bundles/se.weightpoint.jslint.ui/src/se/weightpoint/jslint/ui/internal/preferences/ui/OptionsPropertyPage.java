@@ -10,7 +10,6 @@
  ******************************************************************************/
 package se.weightpoint.jslint.ui.internal.preferences.ui;
 
-import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.SelectionAdapter;
@@ -22,8 +21,7 @@ import org.eclipse.swt.widgets.Control;
 import org.osgi.service.prefs.Preferences;
 
 import se.weightpoint.jslint.ui.internal.Activator;
-import se.weightpoint.jslint.ui.internal.builder.BuilderUtil;
-import se.weightpoint.jslint.ui.internal.builder.JSLintBuilder;
+import se.weightpoint.jslint.ui.internal.builder.RecheckJob;
 import se.weightpoint.jslint.ui.internal.preferences.OptionsPreferences;
 
 
@@ -102,9 +100,8 @@ public class OptionsPropertyPage extends AbstractPropertyPage {
     return changed;
   }
 
-  private void triggerRebuild() throws CoreException {
-    IProject project = getResource().getProject();
-    BuilderUtil.triggerClean( project, JSLintBuilder.ID );
+  private void triggerRebuild() {
+    RecheckJob.recheck( getResource().getProject() );
   }
 
   private static GridData createGridDataForCheckbox() {
@@ -24,8 +24,8 @@ import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Text;
 
-import se.weightpoint.jslint.ui.internal.preferences.PathPattern;
-import se.weightpoint.jslint.ui.internal.preferences.PathSegmentPattern;
+import se.weightpoint.jslint.internal.PathPattern;
+import se.weightpoint.jslint.internal.PathSegmentPattern;
 
 
 public class PathPatternDialog extends TitleAreaDialog {
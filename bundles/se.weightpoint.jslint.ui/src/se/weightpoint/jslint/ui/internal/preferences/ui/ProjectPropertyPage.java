@@ -21,6 +21,7 @@ import org.osgi.service.prefs.Preferences;
 import se.weightpoint.jslint.ui.internal.Activator;
 import se.weightpoint.jslint.ui.internal.builder.BuilderUtil;
 import se.weightpoint.jslint.ui.internal.builder.JSLintBuilder;
+import se.weightpoint.jslint.ui.internal.builder.RecheckJob;
 import se.weightpoint.jslint.ui.internal.preferences.EnablementPreferences;
 import se.weightpoint.jslint.ui.internal.preferences.ResourceSelector;
 
@@ -85,9 +86,8 @@ public class ProjectPropertyPage extends AbstractPropertyPage {
     return BuilderUtil.removeBuilderFromProject( project, JSLintBuilder.ID );
   }
 
-  private void triggerRebuild() throws CoreException {
-    IProject project = getResource().getProject();
-    BuilderUtil.triggerClean( project, JSLintBuilder.ID );
+  private void triggerRebuild() {
+    RecheckJob.recheck( getResource().getProject() );
   }
 
 }
@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint;
+
+
+public interface CheckMonitor {
+
+  /**
+   * Returns whether the running check should be canceled. This method is called periodically
+   * while JSLint is running, possibly many times per check, and should return quickly.
+   *
+   * @return <code>true</code> to abort the check
+   */
+  boolean isCanceled();
+
+}
@@ -22,9 +22,14 @@ import org.mozilla.javascript.Function;
 import org.mozilla.javascript.JavaScriptException;
 import org.mozilla.javascript.NativeArray;
 import org.mozilla.javascript.RhinoException;
+import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
 
+import se.weightpoint.jslint.internal.JSLintLibrary;
 import se.weightpoint.jslint.internal.JSLintRunner;
+import se.weightpoint.jslint.internal.LibraryCache;
+import se.weightpoint.jslint.internal.ObservingContextFactory;
+import se.weightpoint.jslint.internal.ObservingContextFactory.InstructionObserver;
 import se.weightpoint.jslint.internal.ProblemImpl;
 import se.weightpoint.jslint.json.JsonObject;
 import se.weightpoint.jslint.json.JsonValue;
@@ -42,6 +47,11 @@ import se.weightpoint.jslint.json.JsonValue;
  * jslint.configure( new Configuration() );
  * jslint.check( jsCode, new ProblemHandler() { ... } );
  * </pre>
+ * <p>
+ * Instances of this class must not be used concurrently from multiple threads. However, all
+ * instances that load the same library share the compiled library code and a sealed scope with
+ * the standard objects, so that creating multiple instances is cheap.
+ * </p>
  *
  * @see http://www.jslint.com/
  */
@@ -49,22 +59,27 @@ public class JSLint {
 
   private static final String DEFAULT_JSLINT_VERSION = "2013-07-31";
   private static final int DEFAULT_JSLINT_INDENT = 4;
-  private ScriptableObject scope;
+  private static JSLintLibrary defaultLibrary;
+  private JSLintLibrary library;
+  private JsonObject configuration;
+  private Scriptable scope;
   private Function jslint;
-  private Object opts;
+  private Scriptable opts;
   private int indent = DEFAULT_JSLINT_INDENT;
+  private boolean expandsTabs;
+  private long timeLimit;
+  private int maxProblems;
+  private boolean aborted;
+  private Text checkedText;
+  private NativeArray errors;
 
   /**
-   * Loads the default JSLint library.
+   * Loads the default JSLint library. The library is compiled only once and shared by all JSLint
+   * instances.
    * @see #getDefaultLibraryVersion()
    */
   public void load() throws IOException {
-    Reader reader = getJsLintReader();
-    try {
-      load( reader );
-    } finally {
-      reader.close();
-    }
+    load( getDefaultLibrary() );
   }
 
   /**
@@ -73,6 +88,10 @@ public class JSLint {
    * <p>
    * JSLint is also supported. In this case the file to provide is <code>jslint.js</code>.
    * </p>
+   * <p>
+   * Compiled libraries are cached, loading a library with the same contents again does not
+   * recompile it.
+   * </p>
    *
    * @param inputStream
    *          an input stream to load the the JSLint library from
@@ -82,16 +101,13 @@ public class JSLint {
    *           if the given input is not a proper JSLint library file
    */
   public void load( InputStream inputStream ) throws IOException {
-    Reader reader = new InputStreamReader( inputStream );
-    try {
-      load( reader );
-    } finally {
-      reader.close();
-    }
+    load( readLibrary( inputStream ) );
   }
 
   /**
-   * Sets the configuration to use for all subsequent checks.
+   * Sets the configuration to use for all subsequent checks. The options object passed to JSLint
+   * is created from the configuration on the next check and shared with all instances that use an
+   * equal configuration.
    *
    * @param configuration
    *          the configuration to use, must not be null
@@ -100,15 +116,40 @@ public class JSLint {
     if( configuration == null ) {
       throw new NullPointerException( "configuration is null" );
     }
-    Context context = Context.enter();
-    try {
-      ScriptableObject scope = context.initStandardObjects();
-      String optionsString = configuration.toString();
-      opts = context.evaluateString( scope, "opts = " + optionsString + ";", "[options]", 1, null );
-      indent = determineIndent( configuration );
-    } finally {
-      Context.exit();
+    indent = determineIndent( configuration );
+    this.configuration = configuration;
+    opts = null;
+  }
+
+  /**
+   * Sets the maximum time a single check may take. Checks that take longer are aborted and
+   * reported as a single problem without a line number.
+   *
+   * @param timeLimit
+   *          the time limit in milliseconds, or <code>0</code> for no limit
+   */
+  public void setTimeLimit( long timeLimit ) {
+    if( timeLimit < 0 ) {
+      throw new IllegalArgumentException( "timeLimit is negative: " + timeLimit );
     }
+    this.timeLimit = timeLimit;
+  }
+
+  /**
+   * Sets the maximum number of problems to report per check. JSLint stops its analysis when this
+   * number of problems has been found, which makes checks of code with many problems faster. The
+   * limit is passed to JSLint as the <code>maxerr</code> option, a lower <code>maxerr</code> in
+   * the configuration takes precedence.
+   *
+   * @param maxProblems
+   *          the maximum number of problems, or <code>0</code> for no limit
+   */
+  public void setMaxProblems( int maxProblems ) {
+    if( maxProblems < 0 ) {
+      throw new IllegalArgumentException( "maxProblems is negative: " + maxProblems );
+    }
+    this.maxProblems = maxProblems;
+    opts = null;
   }
 
   private int determineIndent( JsonObject configuration ) {
@@ -136,6 +177,26 @@ public class JSLint {
   }
 
   public boolean check( Text text, ProblemHandler handler ) {
+    return check( text, handler, null );
+  }
+
+  /**
+   * Checks the given JavaScript code. All problems will be reported to the given problem handler.
+   * The given monitor is queried periodically while JSLint is running. If it requests to cancel,
+   * or if the time limit is exceeded, the check is aborted and reported as a single problem
+   * without a line number.
+   *
+   * @param text
+   *          the JavaScript code to check, must not be null
+   * @param handler
+   *          the handler to report problems to or <code>null</code>
+   * @param monitor
+   *          the monitor to query for cancellation or <code>null</code>
+   * @return <code>true</code> if no problems have been found, otherwise <code>false</code>
+   * @see #setTimeLimit(long)
+   * @see #wasAborted()
+   */
+  public boolean check( Text text, ProblemHandler handler, CheckMonitor monitor ) {
     if( text == null ) {
       throw new NullPointerException( "code is null" );
     }
@@ -143,15 +204,35 @@ public class JSLint {
       throw new IllegalStateException( "JSLint is not loaded" );
     }
     boolean result = true;
+    aborted = false;
+    checkedText = text;
+    errors = null;
     String code = text.getContent();
     // Don't feed jslint with empty strings, see https://github.com/jshint/jshint/issues/615
     // However, consider an empty string valid
     if( code.trim().length() != 0 ) {
-      Context context = Context.enter();
+      Context context = ObservingContextFactory.getInstance().enterContext();
       try {
-        result = checkCode( context, code );
-        if( !result && handler != null ) {
-          handleProblems( handler, text );
+        String abortReason = null;
+        ObservingContextFactory.setObserver( context, createObserver( monitor ) );
+        try {
+          result = checkCode( context, code );
+        } catch( CheckAbortedError error ) {
+          abortReason = error.getMessage();
+          aborted = true;
+          result = false;
+        } finally {
+          ObservingContextFactory.setObserver( context, null );
+        }
+        if( aborted ) {
+          if( handler != null ) {
+            handler.handleProblem( new ProblemImpl( -1, -1, "Check aborted: " + abortReason ) );
+          }
+        } else if( !result ) {
+          errors = ( NativeArray )jslint.get( "errors", jslint );
+          if( handler != null ) {
+            handleProblems( handler );
+          }
         }
       } finally {
         Context.exit();
@@ -160,6 +241,44 @@ public class JSLint {
     return result;
   }
 
+  /**
+   * Returns a cursor over the problems found by the last check. The cursor is empty if no check
+   * has been performed yet, if the last check did not find any problems, or if it has been
+   * aborted. If a maximum number of problems is set, the cursor stops after this number.
+   *
+   * @return a cursor over all problems of the last check
+   * @see #setMaxProblems(int)
+   */
+  public ProblemCursor getProblems() {
+    return getProblems( maxProblems > 0 ? maxProblems : Integer.MAX_VALUE );
+  }
+
+  /**
+   * Returns a cursor over the first problems found by the last check. The cursor stops after the
+   * given number of problems, the remaining problems are not read at all.
+   *
+   * @param maxProblems
+   *          the maximum number of problems to iterate over
+   * @return a cursor over the problems of the last check
+   * @see #getProblems()
+   */
+  public ProblemCursor getProblems( int maxProblems ) {
+    if( maxProblems < 0 ) {
+      throw new IllegalArgumentException( "maxProblems is negative: " + maxProblems );
+    }
+    return new ProblemCursor( this, checkedText, errors, maxProblems );
+  }
+
+  /**
+   * Returns whether the last check has been aborted, either because it has been canceled or
+   * because it exceeded the time limit.
+   *
+   * @return <code>true</code> if the last check has been aborted
+   */
+  public boolean wasAborted() {
+    return aborted;
+  }
+
   /**
    * Returns the version of the built-in JSLint library that is used when <code>load()</code> is
    * called without a parameter.
@@ -170,15 +289,15 @@ public class JSLint {
     return DEFAULT_JSLINT_VERSION;
   }
 
-  private void load( Reader reader ) throws IOException {
-    Context context = Context.enter();
+  void load( JSLintLibrary library ) {
+    Context context = ObservingContextFactory.getInstance().enterContext();
     try {
-      context.setOptimizationLevel( 9 );
       context.setLanguageVersion( Context.VERSION_1_5 );
-      scope = context.initStandardObjects();
-      context.evaluateString( scope, createShimCode(), "shim", 1, null );
-      context.evaluateReader( scope, reader, "jslint library", 1, null );
+      scope = library.createScope( context );
       jslint = findJSLintFunction( scope );
+      expandsTabs = expandsTabs( jslint );
+      this.library = library;
+      opts = null;
     } catch( RhinoException exception ) {
       throw new IllegalArgumentException( "Could not evaluate JavaScript input", exception );
     } finally {
@@ -187,6 +306,9 @@ public class JSLint {
   }
 
   private boolean checkCode( Context context, String code ) {
+    if( opts == null ) {
+      opts = createOptions( context );
+    }
     try {
       Object[] args = new Object[] { code, opts };
       return ( (Boolean)jslint.call( context, scope, null, args ) ).booleanValue();
@@ -199,54 +321,51 @@ public class JSLint {
     }
   }
 
-  private void handleProblems( ProblemHandler handler, Text text ) {
-    NativeArray errors = (NativeArray)jslint.get( "errors", jslint );
-    long length = errors.getLength();
-    for( int i = 0; i < length; i++ ) {
-      Object object = errors.get( i, errors );
-      ScriptableObject error = (ScriptableObject)object;
-      if( error != null ) {
-        Problem problem = createProblem( error, text );
-        handler.handleProblem( problem );
+  private Scriptable createOptions( Context context ) {
+    JsonObject options = configuration;
+    if( maxProblems > 0 ) {
+      options = options == null ? new JsonObject() : new JsonObject( options );
+      JsonValue maxerr = options.get( "maxerr" );
+      if( maxerr == null || !maxerr.isNumber() || maxerr.asInt() > maxProblems ) {
+        options.remove( "maxerr" ).add( "maxerr", maxProblems );
       }
     }
+    return options == null ? null : library.getOptions( context, options );
   }
 
-  private ProblemImpl createProblem( ScriptableObject error, Text text ) {
-    String reason = getPropertyAsString( error, "reason", "" );
-    int line = getPropertyAsInt( error, "line", -1 );
-    int character = getPropertyAsInt( error, "character", -1 );
-    if( character > 0 ) {
-      character = fixPosition( text, line, character );
+  private InstructionObserver createObserver( CheckMonitor monitor ) {
+    if( monitor == null && timeLimit == 0 ) {
+      return null;
     }
-    String message = reason.endsWith( "." ) ? reason.substring( 0, reason.length() - 1 ) : reason;
-    return new ProblemImpl( line, character, message );
+    long deadline = timeLimit == 0 ? 0 : System.currentTimeMillis() + timeLimit;
+    return new CheckGuard( monitor, timeLimit, deadline );
   }
 
-  private int fixPosition( Text text, int line, int character ) {
-    // JSLint reports physical character positions instead of a character index,
-    // i.e. every tab character is multiplied with the indent.
-    String string = text.getContent();
-    int offset = text.getLineOffset( line - 1 );
-    int indentIndex = 0;
-    int charIndex = 0;
-    int maxIndex = Math.min( character, string.length() - offset ) - 1;
-    while( indentIndex < maxIndex ) {
-      boolean isTab = string.charAt( offset + indentIndex ) == '\t';
-      indentIndex += isTab ? indent : 1;
-      charIndex++;
+  private void handleProblems( ProblemHandler handler ) {
+    ProblemCursor cursor = getProblems();
+    while( cursor.next() ) {
+      Problem problem = new ProblemImpl( cursor.line(), cursor.character(), cursor.reason() );
+      handler.handleProblem( problem );
     }
-    return charIndex;
   }
 
-  private static String createShimCode() {
-    // Create shims to prevent problems with JSLint accessing objects that are not available in
-    // Rhino, e.g. https://github.com/jshint/jshint/issues/1038
-    return "console = {log:function(){},error:function(){},trace:function(){}};"
-         + "window = {};";
+  int fixPosition( Text text, int line, int character ) {
+    // Older editions of JSLint report physical character positions instead of a character index,
+    // i.e. every tab character is multiplied with the indent.
+    int tabWidth = expandsTabs ? indent : 1;
+    return text.getCharacterIndex( line - 1, character - 1, tabWidth );
+  }
+
+  /*
+   * JSLint editions before 2013 replace every tab with 'indent' spaces before parsing a line.
+   * Later editions replace it with a single space, their positions are character indexes.
+   */
+  private static boolean expandsTabs( Function jslint ) {
+    Object edition = ScriptableObject.getProperty( jslint, "edition" );
+    return edition instanceof CharSequence && edition.toString().compareTo( "2013" ) < 0;
   }
 
-  private static Function findJSLintFunction( ScriptableObject scope )
+  private static Function findJSLintFunction( Scriptable scope )
       throws IllegalArgumentException
   {
     Object object;
@@ -261,25 +380,52 @@ public class JSLint {
     return (Function)object;
   }
 
-  private static String getPropertyAsString( ScriptableObject object,
-                                             String name,
-                                             String defaultValue )
-  {
-    String result = defaultValue;
-    Object property = ScriptableObject.getProperty( object, name );
-    if( property instanceof String ) {
-      result = ( String )property;
+  JSLintLibrary getLibrary() {
+    return library;
+  }
+
+  JsonObject getConfiguration() {
+    return configuration;
+  }
+
+  long getTimeLimit() {
+    return timeLimit;
+  }
+
+  int getMaxProblems() {
+    return maxProblems;
+  }
+
+  static synchronized JSLintLibrary getDefaultLibrary() throws IOException {
+    if( defaultLibrary == null ) {
+      Reader reader = getJsLintReader();
+      try {
+        defaultLibrary = LibraryCache.getLibrary( readAll( reader ) );
+      } finally {
+        reader.close();
+      }
     }
-    return result;
+    return defaultLibrary;
   }
 
-  private static int getPropertyAsInt( ScriptableObject object, String name, int defaultValue ) {
-    int result = defaultValue;
-    Object property = ScriptableObject.getProperty( object, name );
-    if( property instanceof Number ) {
-      result = ( ( Number )property ).intValue();
+  static JSLintLibrary readLibrary( InputStream inputStream ) throws IOException {
+    Reader reader = new InputStreamReader( inputStream );
+    try {
+      return LibraryCache.getLibrary( readAll( reader ) );
+    } finally {
+      reader.close();
     }
-    return result;
+  }
+
+  private static String readAll( Reader reader ) throws IOException {
+    StringBuilder builder = new StringBuilder();
+    char[] buffer = new char[ 8192 ];
+    int read = reader.read( buffer );
+    while( read != -1 ) {
+      builder.append( buffer, 0, read );
+      read = reader.read( buffer );
+    }
+    return builder.toString();
   }
 
   private static BufferedReader getJsLintReader() throws UnsupportedEncodingException {
@@ -292,7 +438,43 @@ public class JSLint {
 
   public static void main( String[] args ) {
     JSLintRunner runner = new JSLintRunner();
-    runner.run( args );
+    System.exit( runner.run( args ) );
+  }
+
+  private static class CheckGuard implements InstructionObserver {
+
+    private final CheckMonitor monitor;
+    private final long timeLimit;
+    private final long deadline;
+
+    CheckGuard( CheckMonitor monitor, long timeLimit, long deadline ) {
+      this.monitor = monitor;
+      this.timeLimit = timeLimit;
+      this.deadline = deadline;
+    }
+
+    public void observeInstructions() {
+      if( monitor != null && monitor.isCanceled() ) {
+        throw new CheckAbortedError( "canceled" );
+      }
+      if( deadline != 0 && System.currentTimeMillis() > deadline ) {
+        throw new CheckAbortedError( "time limit of " + timeLimit + " ms exceeded" );
+      }
+    }
+
+  }
+
+  /*
+   * An Error is used to abort a check since Rhino does not let scripts catch errors.
+   */
+  private static class CheckAbortedError extends Error {
+
+    private static final long serialVersionUID = 1L;
+
+    CheckAbortedError( String reason ) {
+      super( reason );
+    }
+
   }
 
 }
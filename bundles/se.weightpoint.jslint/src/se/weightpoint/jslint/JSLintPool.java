@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import se.weightpoint.jslint.internal.JSLintLibrary;
+import se.weightpoint.jslint.json.JsonObject;
+
+
+/**
+ * A bounded pool of loaded and configured JSLint instances that can be used to check code from
+ * multiple threads concurrently. Every instance borrowed from the pool is used exclusively by the
+ * borrowing thread until it is released.
+ * <p>
+ * Usage:
+ * </p>
+ *
+ * <pre>
+ * JSLintPool pool = new JSLintPool( 4 );
+ * pool.load();
+ * pool.configure( configuration );
+ * JSLint jslint = pool.borrow();
+ * try {
+ *   jslint.check( jsCode, new ProblemHandler() { ... } );
+ * } finally {
+ *   pool.release( jslint );
+ * }
+ * </pre>
+ * <p>
+ * Instances are created on demand, up to the maximum size of the pool. When all instances are in
+ * use, {@link #borrow()} blocks until an instance is released, while
+ * {@link #borrow(long, TimeUnit)} fails when no instance becomes available in time. Instances
+ * that are idle while the library or the configuration of the pool is changed are updated before
+ * they are handed out again.
+ * </p>
+ */
+public class JSLintPool {
+
+  private final int maxSize;
+  private final Semaphore permits;
+  private final Queue<JSLint> idleInstances;
+  private final Set<JSLint> borrowedInstances;
+  private volatile JSLintLibrary library;
+  private volatile JsonObject configuration = new JsonObject();
+
+  /**
+   * Creates a new pool with the given maximum number of instances.
+   *
+   * @param maxSize
+   *          the maximum number of instances, must be positive
+   */
+  public JSLintPool( int maxSize ) {
+    if( maxSize < 1 ) {
+      throw new IllegalArgumentException( "maxSize must be positive: " + maxSize );
+    }
+    this.maxSize = maxSize;
+    permits = new Semaphore( maxSize, true );
+    idleInstances = new ConcurrentLinkedQueue<JSLint>();
+    borrowedInstances = new HashSet<JSLint>();
+  }
+
+  /**
+   * Returns the maximum number of instances in this pool.
+   *
+   * @return the maximum number of instances
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Loads the default JSLint library for all instances of this pool.
+   *
+   * @see JSLint#load()
+   */
+  public void load() throws IOException {
+    library = JSLint.getDefaultLibrary();
+  }
+
+  /**
+   * Loads a custom JSLint library for all instances of this pool.
+   *
+   * @param inputStream
+   *          an input stream to load the the JSLint library from
+   * @throws IOException
+   *           if an I/O error occurs while reading from the input stream
+   * @throws IllegalArgumentException
+   *           if the given input is not a proper JSLint library file
+   * @see JSLint#load(InputStream)
+   */
+  public void load( InputStream inputStream ) throws IOException {
+    library = JSLint.readLibrary( inputStream );
+  }
+
+  /**
+   * Returns a checksum of the library loaded by this pool. Two libraries with the same contents
+   * have the same checksum.
+   *
+   * @return the checksum of the loaded library
+   * @throws IllegalStateException
+   *           if no library has been loaded
+   */
+  public String getLibraryChecksum() {
+    checkLoaded();
+    return library.getChecksum();
+  }
+
+  /**
+   * Sets the configuration to use for all instances of this pool.
+   *
+   * @param configuration
+   *          the configuration to use, must not be null
+   * @see JSLint#configure(JsonObject)
+   */
+  public void configure( JsonObject configuration ) {
+    if( configuration == null ) {
+      throw new NullPointerException( "configuration is null" );
+    }
+    this.configuration = new JsonObject( configuration );
+  }
+
+  /**
+   * Borrows an instance from this pool. If all instances are in use, this method blocks until an
+   * instance is released. The instance must be released using {@link #release(JSLint)} when it is
+   * no longer used.
+   *
+   * @return a loaded and configured JSLint instance
+   * @throws InterruptedException
+   *           if the current thread is interrupted while waiting
+   * @throws IllegalStateException
+   *           if no library has been loaded
+   */
+  public JSLint borrow() throws InterruptedException {
+    checkLoaded();
+    permits.acquire();
+    return obtainInstance();
+  }
+
+  /**
+   * Borrows an instance from this pool. If all instances are in use, this method waits up to the
+   * given time for an instance to be released. The instance must be released using
+   * {@link #release(JSLint)} when it is no longer used.
+   *
+   * @param timeout
+   *          the maximum time to wait, <code>0</code> to fail immediately
+   * @param unit
+   *          the time unit of the timeout
+   * @return a loaded and configured JSLint instance
+   * @throws InterruptedException
+   *           if the current thread is interrupted while waiting
+   * @throws IllegalStateException
+   *           if no library has been loaded or if no instance became available in time
+   */
+  public JSLint borrow( long timeout, TimeUnit unit ) throws InterruptedException {
+    checkLoaded();
+    if( !permits.tryAcquire( timeout, unit ) ) {
+      throw new IllegalStateException( "No JSLint instance available, pool size: " + maxSize );
+    }
+    return obtainInstance();
+  }
+
+  /**
+   * Returns an instance to this pool. The time limit and the maximum number of problems of the
+   * instance are reset to their defaults and a configuration set by the borrower is replaced with
+   * the configuration of the pool, so that the next borrower is not affected by settings of a
+   * previous one.
+   *
+   * @param jslint
+   *          an instance that has been borrowed from this pool
+   * @throws IllegalArgumentException
+   *           if the instance is not currently borrowed from this pool
+   */
+  public void release( JSLint jslint ) {
+    if( jslint == null ) {
+      throw new NullPointerException( "jslint is null" );
+    }
+    synchronized( borrowedInstances ) {
+      if( !borrowedInstances.remove( jslint ) ) {
+        throw new IllegalArgumentException( "Instance is not borrowed from this pool" );
+      }
+    }
+    jslint.setTimeLimit( 0 );
+    jslint.setMaxProblems( 0 );
+    idleInstances.add( jslint );
+    permits.release();
+  }
+
+  private JSLint obtainInstance() {
+    try {
+      JSLint jslint = idleInstances.poll();
+      if( jslint == null ) {
+        jslint = new JSLint();
+      }
+      prepareInstance( jslint );
+      synchronized( borrowedInstances ) {
+        borrowedInstances.add( jslint );
+      }
+      return jslint;
+    } catch( RuntimeException exception ) {
+      permits.release();
+      throw exception;
+    }
+  }
+
+  private void prepareInstance( JSLint jslint ) {
+    JSLintLibrary currentLibrary = library;
+    if( jslint.getLibrary() != currentLibrary ) {
+      jslint.load( currentLibrary );
+    }
+    JsonObject currentConfiguration = configuration;
+    if( jslint.getConfiguration() != currentConfiguration ) {
+      jslint.configure( currentConfiguration );
+    }
+  }
+
+  private void checkLoaded() {
+    if( library == null ) {
+      throw new IllegalStateException( "JSLint is not loaded" );
+    }
+  }
+
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint;
+
+import org.mozilla.javascript.NativeArray;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+
+/**
+ * A cursor over the problems found by a check. The fields of a problem are read from the JSLint
+ * results only when they are requested, no objects are created per problem.
+ * <p>
+ * Usage:
+ * </p>
+ *
+ * <pre>
+ * jslint.check( text, null );
+ * ProblemCursor cursor = jslint.getProblems( 10 );
+ * while( cursor.next() ) {
+ *   System.out.println( cursor.line() + ": " + cursor.reason() );
+ * }
+ * </pre>
+ * <p>
+ * The cursor itself implements {@link Problem} and reflects the current problem. It is a
+ * flyweight: when it is passed to a {@link ProblemHandler}, the handler must copy the values it
+ * wants to keep. A cursor remains valid when the JSLint instance is used for other checks.
+ * </p>
+ */
+public class ProblemCursor implements Problem {
+
+  private final JSLint jslint;
+  private final Text text;
+  private final NativeArray errors;
+  private final int length;
+  private final int maxProblems;
+  private int index;
+  private int count;
+  private ScriptableObject current;
+  private int line;
+  private int character;
+  private String reason;
+  private boolean lineRead;
+  private boolean characterRead;
+
+  ProblemCursor( JSLint jslint, Text text, NativeArray errors, int maxProblems ) {
+    this.jslint = jslint;
+    this.text = text;
+    this.errors = errors;
+    this.maxProblems = maxProblems;
+    length = errors == null ? 0 : ( int )errors.getLength();
+    index = -1;
+  }
+
+  /**
+   * Moves the cursor to the next problem.
+   *
+   * @return <code>true</code> if the cursor points to a problem, <code>false</code> if there are
+   *         no more problems or if the maximum number of problems has been reached
+   */
+  public boolean next() {
+    current = null;
+    reason = null;
+    lineRead = false;
+    characterRead = false;
+    if( count >= maxProblems ) {
+      return false;
+    }
+    while( ++index < length ) {
+      Object object = errors.get( index, errors );
+      // JSLint may add a null entry when it stops early
+      if( object instanceof ScriptableObject ) {
+        current = ( ScriptableObject )object;
+        count++;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the line of the current problem.
+   *
+   * @return the line number, beginning with 1, or <code>-1</code> if unknown
+   */
+  public int line() {
+    checkCurrent();
+    if( !lineRead ) {
+      line = getPropertyAsInt( current, "line", -1 );
+      lineRead = true;
+    }
+    return line;
+  }
+
+  /**
+   * Returns the character offset of the current problem within its line.
+   *
+   * @return the character offset, beginning with 0, or <code>-1</code> if unknown
+   */
+  public int character() {
+    checkCurrent();
+    if( !characterRead ) {
+      character = getPropertyAsInt( current, "character", -1 );
+      if( character > 0 ) {
+        character = jslint.fixPosition( text, line(), character );
+      }
+      characterRead = true;
+    }
+    return character;
+  }
+
+  /**
+   * Returns the message of the current problem, without a trailing period.
+   *
+   * @return the message, never <code>null</code>
+   */
+  public String reason() {
+    checkCurrent();
+    if( reason == null ) {
+      Object property = ScriptableObject.getProperty( current, "reason" );
+      String string = property instanceof String ? ( String )property : "";
+      reason = string.endsWith( "." ) ? string.substring( 0, string.length() - 1 ) : string;
+    }
+    return reason;
+  }
+
+  public int getLine() {
+    return line();
+  }
+
+  public int getCharacter() {
+    return character();
+  }
+
+  public String getMessage() {
+    return reason();
+  }
+
+  private void checkCurrent() {
+    if( current == null ) {
+      throw new IllegalStateException( "Cursor does not point to a problem" );
+    }
+  }
+
+  private static int getPropertyAsInt( Scriptable object, String name, int defaultValue ) {
+    Object property = ScriptableObject.getProperty( object, name );
+    if( property instanceof Number ) {
+      return ( ( Number )property ).intValue();
+    }
+    return defaultValue;
+  }
+
+}
@@ -10,9 +10,19 @@
  ******************************************************************************/
 package se.weightpoint.jslint;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 
 
 /**
@@ -20,9 +30,22 @@ import java.io.StringReader;
  */
 public class Text {
 
+  // files are read and decoded in chunks of this size, line offsets are scanned per chunk
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  // number of lines per block in the packed representation, must be a power of two
+  private static final int BLOCK_SIZE = 64;
+  private static final int BLOCK_SHIFT = 6;
+  // texts with fewer lines keep their offsets in a plain array
+  private static final int PACK_THRESHOLD = 1024;
   private String code;
   private int lineCount = 1;
   private int[] lineOffsets = new int[ 200 ];
+  // packed line offsets: the offset of the first line of every block plus a 16 bit distance
+  // from this offset for every line, used for large texts instead of lineOffsets
+  private int[] blockOffsets;
+  private char[] lineDeltas;
+  // offsets of all tab characters, created on demand
+  private volatile int[] tabOffsets;
 
   public Text( String text ) {
     if( text == null ) {
@@ -45,6 +68,49 @@ public class Text {
     read( reader );
   }
 
+  private Text() {
+    // used by read( File, Charset )
+  }
+
+  /**
+   * Reads the contents of the given file. The file is read in chunks that are decoded directly
+   * into a single character buffer, line offsets are determined while decoding. Malformed input is
+   * replaced like in an {@link java.io.InputStreamReader}.
+   * <p>
+   * Files are not memory-mapped, since a mapping is only released when it is garbage collected
+   * and keeps the file locked on some platforms until then.
+   * </p>
+   *
+   * @param file
+   *          the file to read
+   * @param charset
+   *          the charset of the file
+   * @return the text contained in the file
+   * @throws IOException
+   *           if the file cannot be read
+   */
+  public static Text read( File file, Charset charset ) throws IOException {
+    if( file == null ) {
+      throw new NullPointerException( "file is null" );
+    }
+    if( charset == null ) {
+      throw new NullPointerException( "charset is null" );
+    }
+    Text text = new Text();
+    FileInputStream inputStream = new FileInputStream( file );
+    try {
+      FileChannel channel = inputStream.getChannel();
+      long size = channel.size();
+      if( size > Integer.MAX_VALUE ) {
+        throw new IOException( "File too large: " + file.getAbsolutePath() );
+      }
+      text.decode( channel, ( int )size, charset );
+    } finally {
+      inputStream.close();
+    }
+    return text;
+  }
+
   public String getContent() {
     return code;
   }
@@ -64,7 +130,7 @@ public class Text {
     if( line >= lineCount ) {
       throw new IndexOutOfBoundsException( "line does not exist: " + line );
     }
-    return lineOffsets[ line ];
+    return getOffset( line );
   }
 
   /**
@@ -78,8 +144,90 @@ public class Text {
     if( line >= lineCount ) {
       throw new IndexOutOfBoundsException( "line does not exist" );
     }
-    int nextOffset = line + 1 == lineCount ? code.length() : lineOffsets[ line + 1 ];
-    return nextOffset - lineOffsets[ line ];
+    int nextOffset = line + 1 == lineCount ? code.length() : getOffset( line + 1 );
+    return nextOffset - getOffset( line );
+  }
+
+  /**
+   * Converts a column, in which every tab character counts as the given number of columns, into a
+   * character index within the line. The positions of tab characters are indexed on the first
+   * call, the conversion itself does not depend on the length of the line. The result is limited
+   * to the end of the text.
+   *
+   * @param line
+   *          zero-relative line index
+   * @param column
+   *          zero-relative column
+   * @param tabWidth
+   *          the number of columns a tab character occupies
+   * @return the zero-relative character index
+   */
+  int getCharacterIndex( int line, int column, int tabWidth ) {
+    int offset = getLineOffset( line );
+    if( column <= 0 ) {
+      return 0;
+    }
+    int maxIndex = code.length() - offset - 1;
+    if( tabWidth <= 1 ) {
+      return Math.max( 0, Math.min( column, maxIndex ) );
+    }
+    int extraWidth = tabWidth - 1;
+    int[] tabs = getTabOffsets();
+    int first = findFirstTab( tabs, offset );
+    // find the tabs that start before the column, their columns are strictly increasing
+    int low = first;
+    int high = tabs.length;
+    while( low < high ) {
+      int mid = ( low + high ) >>> 1;
+      if( tabs[ mid ] - offset + extraWidth * ( mid - first ) < column ) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    int tabCount = low - first;
+    int index = column - extraWidth * tabCount;
+    if( tabCount > 0 ) {
+      // a column within the width of a tab belongs to the character after the tab
+      index = Math.max( index, tabs[ low - 1 ] - offset + 1 );
+    }
+    return Math.max( 0, Math.min( index, maxIndex ) );
+  }
+
+  private int[] getTabOffsets() {
+    int[] result = tabOffsets;
+    if( result == null ) {
+      int count = 0;
+      int length = code.length();
+      for( int i = 0; i < length; i++ ) {
+        if( code.charAt( i ) == '\t' ) {
+          count++;
+        }
+      }
+      result = new int[ count ];
+      int index = 0;
+      for( int i = 0; index < count; i++ ) {
+        if( code.charAt( i ) == '\t' ) {
+          result[ index++ ] = i;
+        }
+      }
+      tabOffsets = result;
+    }
+    return result;
+  }
+
+  private static int findFirstTab( int[] tabs, int offset ) {
+    int low = 0;
+    int high = tabs.length;
+    while( low < high ) {
+      int mid = ( low + high ) >>> 1;
+      if( tabs[ mid ] < offset ) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
   }
 
   private void read( Reader reader ) throws IOException {
@@ -87,18 +235,114 @@ public class Text {
     char[] cbuf = new char[ 8096 ];
     int read = reader.read( cbuf );
     while( read != -1 ) {
-      for( int i = 0; i < read; i++ ) {
-        if( cbuf[i] == '\n' ) {
-          if( lineCount >= lineOffsets.length ) {
-            growLineOffsets();
-          }
-          lineOffsets[ lineCount++ ] = builder.length() + i + 1;
-        }
-      }
+      scanLineOffsets( cbuf, 0, read, builder.length() );
       builder.append( cbuf, 0, read );
       read = reader.read( cbuf );
     }
     code = builder.toString();
+    compactLineOffsets();
+  }
+
+  private void decode( ReadableByteChannel channel, int size, Charset charset )
+      throws IOException
+  {
+    CharsetDecoder decoder = charset.newDecoder()
+      .onMalformedInput( CodingErrorAction.REPLACE )
+      .onUnmappableCharacter( CodingErrorAction.REPLACE );
+    int capacity = ( int )Math.min( Integer.MAX_VALUE,
+                                    ( long )( size * decoder.maxCharsPerByte() ) );
+    CharBuffer chars = CharBuffer.allocate( Math.max( capacity, 16 ) );
+    ByteBuffer bytes = ByteBuffer.allocate( Math.max( Math.min( size, READ_BUFFER_SIZE ), 16 ) );
+    bytes.flip();
+    int scanned = 0;
+    boolean endOfInput = false;
+    boolean flushing = false;
+    while( true ) {
+      CoderResult result = flushing
+                         ? decoder.flush( chars )
+                         : decoder.decode( bytes, chars, endOfInput );
+      scanLineOffsets( chars.array(), scanned, chars.position(), 0 );
+      scanned = chars.position();
+      if( result.isOverflow() ) {
+        chars = grow( chars );
+      } else if( result.isUnderflow() ) {
+        if( flushing ) {
+          break;
+        }
+        if( endOfInput ) {
+          flushing = true;
+        } else {
+          // keep the bytes of an incomplete character for the next chunk
+          bytes.compact();
+          endOfInput = channel.read( bytes ) == -1;
+          bytes.flip();
+        }
+      } else {
+        result.throwException();
+      }
+    }
+    code = new String( chars.array(), 0, chars.position() );
+    compactLineOffsets();
+  }
+
+  private static CharBuffer grow( CharBuffer chars ) {
+    CharBuffer result = CharBuffer.allocate( chars.capacity() * 2 );
+    chars.flip();
+    result.put( chars );
+    return result;
+  }
+
+  private void scanLineOffsets( char[] chars, int start, int end, int base ) {
+    for( int i = start; i < end; i++ ) {
+      if( chars[ i ] == '\n' ) {
+        if( lineCount >= lineOffsets.length ) {
+          growLineOffsets();
+        }
+        lineOffsets[ lineCount++ ] = base + i + 1;
+      }
+    }
+  }
+
+  private int getOffset( int line ) {
+    if( lineOffsets != null ) {
+      return lineOffsets[ line ];
+    }
+    return blockOffsets[ line >>> BLOCK_SHIFT ] + lineDeltas[ line ];
+  }
+
+  /*
+   * Line offsets are collected in an array with spare capacity. Once reading is done, large texts
+   * pack their offsets into blocks if the lines of every block span less than 64K characters,
+   * otherwise the array is trimmed to its actual size.
+   */
+  private void compactLineOffsets() {
+    if( lineCount >= PACK_THRESHOLD && packLineOffsets() ) {
+      lineOffsets = null;
+    } else if( lineOffsets.length > lineCount ) {
+      int[] trimmedLineOffsets = new int[ lineCount ];
+      System.arraycopy( lineOffsets, 0, trimmedLineOffsets, 0, lineCount );
+      lineOffsets = trimmedLineOffsets;
+    }
+  }
+
+  private boolean packLineOffsets() {
+    int blockCount = ( lineCount + BLOCK_SIZE - 1 ) >>> BLOCK_SHIFT;
+    int[] bases = new int[ blockCount ];
+    char[] deltas = new char[ lineCount ];
+    for( int line = 0; line < lineCount; line++ ) {
+      int block = line >>> BLOCK_SHIFT;
+      if( ( line & ( BLOCK_SIZE - 1 ) ) == 0 ) {
+        bases[ block ] = lineOffsets[ line ];
+      }
+      int delta = lineOffsets[ line ] - bases[ block ];
+      if( delta > Character.MAX_VALUE ) {
+        return false;
+      }
+      deltas[ line ] = ( char )delta;
+    }
+    blockOffsets = bases;
+    lineDeltas = deltas;
+    return true;
   }
 
   private void growLineOffsets() {
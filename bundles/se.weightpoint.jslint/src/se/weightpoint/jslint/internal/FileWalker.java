@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Walks a directory tree and reports all files that match the include patterns and do not match
+ * any of the exclude patterns. Patterns are matched against the path relative to the directory
+ * that is walked. Files are reported as they are found, in alphabetical order per folder.
+ */
+class FileWalker {
+
+  private final PathSelector selector;
+
+  FileWalker( List<PathPattern> includePatterns, List<PathPattern> excludePatterns ) {
+    selector = PathSelector.create( includePatterns, excludePatterns );
+  }
+
+  /**
+   * Walks the given directory and reports all selected files to the given handler. The walk ends
+   * early when the handler requests to stop.
+   *
+   * @param directory
+   *          the directory to walk
+   * @param handler
+   *          the handler to report the selected files to
+   * @return <code>false</code> if the walk has been stopped by the handler
+   * @throws IOException
+   *           if the handler throws an IOException
+   */
+  boolean walk( File directory, FileHandler handler ) throws IOException {
+    return walk( directory, new String[ 0 ], new HashSet<String>(), handler );
+  }
+
+  private boolean walk( File directory,
+                        String[] segments,
+                        Set<String> visited,
+                        FileHandler handler ) throws IOException
+  {
+    // guard against cycles caused by symbolic links
+    if( !visited.add( directory.getCanonicalPath() ) ) {
+      return true;
+    }
+    File[] children = directory.listFiles();
+    if( children == null ) {
+      return true;
+    }
+    Arrays.sort( children );
+    for( File child : children ) {
+      boolean proceed = true;
+      if( child.isDirectory() ) {
+        proceed = walk( child, append( segments, child.getName() ), visited, handler );
+      } else if( isSelected( segments, child.getName() ) ) {
+        proceed = handler.handleFile( child );
+      }
+      if( !proceed ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean isSelected( String[] segments, String fileName ) {
+    return selector.selectsFile( segments, fileName );
+  }
+
+  private static String[] append( String[] segments, String segment ) {
+    String[] result = new String[ segments.length + 1 ];
+    System.arraycopy( segments, 0, result, 0, segments.length );
+    result[ segments.length ] = segment;
+    return result;
+  }
+
+  /**
+   * Receives the files found by a {@link FileWalker}.
+   */
+  interface FileHandler {
+
+    /**
+     * @param file
+     *          the selected file
+     * @return <code>true</code> to continue, <code>false</code> to stop the walk
+     */
+    boolean handleFile( File file ) throws IOException;
+
+  }
+
+}
@@ -0,0 +1,529 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import se.weightpoint.jslint.JSLint;
+import se.weightpoint.jslint.JSLintPool;
+import se.weightpoint.jslint.Problem;
+import se.weightpoint.jslint.ProblemHandler;
+import se.weightpoint.jslint.Text;
+import se.weightpoint.jslint.json.JsonArray;
+import se.weightpoint.jslint.json.JsonObject;
+import se.weightpoint.jslint.json.JsonValue;
+
+
+/**
+ * A long-running server that checks JavaScript code on request, using a pool of warm JSLint
+ * instances. The server listens on the loopback interface only.
+ * <p>
+ * The protocol is line based. Every request is a JSON object on a single line, the server answers
+ * each request with a JSON object on a single line. A connection can be used for any number of
+ * requests. Supported requests:
+ * </p>
+ * <dl>
+ * <dt><code>{"token": "...", "content": "...", "options": {...}}</code></dt>
+ * <dd>Checks the given code.</dd>
+ * <dt><code>{"token": "...", "path": "...", "options": {...}}</code></dt>
+ * <dd>Checks the contents of the given file.</dd>
+ * <dt><code>{"token": "...", "command": "authenticate"}</code></dt>
+ * <dd>Only verifies the token, see below.</dd>
+ * <dt><code>{"token": "...", "command": "shutdown"}</code></dt>
+ * <dd>Stops the server.</dd>
+ * </dl>
+ * <p>
+ * Since any local process can connect to the server, every request must contain the session
+ * token of the server. The token is created randomly for every server instance and written to a
+ * token file that only the owner can read, see {@link #writeTokenFile(File)}. Until a request
+ * with a valid token has been received, requests on a connection are limited to a short length,
+ * therefore clients that send large requests should authenticate first. Later requests are
+ * limited to a larger length. A connection that sends a longer request is closed.
+ * </p>
+ * <p>
+ * The number of concurrent connections is limited, further connections are closed right away.
+ * Connections that are idle for longer than the read timeout are closed as well. Every check is
+ * aborted when it exceeds the time limit.
+ * </p>
+ * <p>
+ * The <code>options</code> member is optional, the default configuration of the pool is used if it
+ * is missing. A check results in a response like
+ * <code>{"problems": [{"line": 1, "character": 4, "message": "..."}]}</code>, a failed request in
+ * a response like <code>{"error": "..."}</code>.
+ * </p>
+ */
+public class JSLintDaemon {
+
+  // maximum number of characters in a single request
+  static final int MAX_REQUEST_LENGTH = 16 * 1024 * 1024;
+  // maximum number of characters in a request before the connection is authenticated
+  static final int MAX_UNAUTHENTICATED_REQUEST_LENGTH = 1024;
+  // maximum number of connections that are served concurrently
+  static final int MAX_CONNECTIONS = 16;
+  // default maximum time to wait for the next request on a connection
+  static final int DEFAULT_READ_TIMEOUT = 60000;
+  // default maximum time to spend on a single check
+  static final long DEFAULT_TIME_LIMIT = 30000;
+  private static final String UTF_8 = "UTF-8";
+  private static final int TOKEN_LENGTH = 32;
+  private final JSLintPool pool;
+  private final Charset charset;
+  private final String token;
+  private volatile long timeLimit = DEFAULT_TIME_LIMIT;
+  private volatile int maxRequestLength = MAX_REQUEST_LENGTH;
+  private volatile int maxConnections = MAX_CONNECTIONS;
+  private volatile int readTimeout = DEFAULT_READ_TIMEOUT;
+  private ServerSocket serverSocket;
+  private File tokenFile;
+
+  /**
+   * @param pool
+   *          a loaded and configured pool
+   * @param charset
+   *          the charset to read files with
+   */
+  public JSLintDaemon( JSLintPool pool, Charset charset ) {
+    this.pool = pool;
+    this.charset = charset;
+    token = createToken();
+  }
+
+  /**
+   * Sets the maximum time a single check may take. Checks that take longer are aborted and
+   * reported as a single problem without a line number.
+   *
+   * @param timeLimit
+   *          the time limit in milliseconds, or <code>0</code> for no limit
+   * @see JSLint#setTimeLimit(long)
+   */
+  public void setTimeLimit( long timeLimit ) {
+    if( timeLimit < 0 ) {
+      throw new IllegalArgumentException( "timeLimit is negative: " + timeLimit );
+    }
+    this.timeLimit = timeLimit;
+  }
+
+  /**
+   * Writes the session token of this server to the given file, so that clients of the same user
+   * can read it. The file is created anew and made readable and writable for its owner only. It is
+   * deleted when the server is shut down.
+   *
+   * @param file
+   *          the file to write the token to, an existing file is replaced
+   * @throws IOException
+   *           if the file cannot be written or its access cannot be restricted to the owner
+   */
+  public synchronized void writeTokenFile( File file ) throws IOException {
+    if( file.exists() && !file.delete() ) {
+      throw new IOException( "Could not replace token file " + file );
+    }
+    // create the file before anything is written to it to restrict access to an empty file
+    if( !file.createNewFile() ) {
+      throw new IOException( "Could not create token file " + file );
+    }
+    tokenFile = file;
+    restrictToOwner( file );
+    Writer writer = new OutputStreamWriter( new FileOutputStream( file ), UTF_8 );
+    try {
+      writer.write( token );
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Binds the server to the given port on the loopback interface.
+   *
+   * @param port
+   *          the port to listen on, or <code>0</code> for any free port
+   * @return the port the server is bound to
+   * @throws IOException
+   *           if the server socket cannot be bound
+   */
+  public synchronized int bind( int port ) throws IOException {
+    serverSocket = new ServerSocket( port, 50, InetAddress.getByName( null ) );
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Accepts connections and serves requests until the server is shut down. Every connection is
+   * served in a separate thread. Connections that exceed the maximum number of concurrent
+   * connections are closed after an error response.
+   *
+   * @throws IOException
+   *           if an I/O error occurs while waiting for connections
+   */
+  public void serve() throws IOException {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    final Semaphore connections = new Semaphore( maxConnections );
+    try {
+      while( true ) {
+        final Socket socket;
+        try {
+          socket = serverSocket.accept();
+        } catch( SocketException exception ) {
+          if( serverSocket.isClosed() ) {
+            return;
+          }
+          throw exception;
+        }
+        if( connections.tryAcquire() ) {
+          executor.execute( new Runnable() {
+            public void run() {
+              try {
+                handleConnection( socket );
+              } finally {
+                connections.release();
+              }
+            }
+          } );
+        } else {
+          rejectConnection( socket );
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Stops the server and deletes the token file. Connections that are already open are not
+   * affected.
+   */
+  public synchronized void shutdown() {
+    if( serverSocket != null ) {
+      try {
+        serverSocket.close();
+      } catch( IOException exception ) {
+        // ignore, the socket is unusable anyway
+      }
+    }
+    if( tokenFile != null ) {
+      tokenFile.delete();
+      tokenFile = null;
+    }
+  }
+
+  String getToken() {
+    return token;
+  }
+
+  void setMaxRequestLength( int maxRequestLength ) {
+    this.maxRequestLength = maxRequestLength;
+  }
+
+  void setMaxConnections( int maxConnections ) {
+    this.maxConnections = maxConnections;
+  }
+
+  void setReadTimeout( int readTimeout ) {
+    this.readTimeout = readTimeout;
+  }
+
+  String handleRequest( String line ) {
+    JsonObject response;
+    try {
+      JsonObject request = JsonObject.readFrom( line );
+      checkToken( request );
+      JsonValue command = request.get( "command" );
+      if( command != null ) {
+        response = handleCommand( command.asString() );
+      } else {
+        response = check( request );
+      }
+    } catch( IOException exception ) {
+      response = createErrorResponse( exception );
+    } catch( RuntimeException exception ) {
+      response = createErrorResponse( exception );
+    }
+    return response.toString();
+  }
+
+  private void handleConnection( Socket socket ) {
+    try {
+      try {
+        socket.setSoTimeout( readTimeout );
+        Reader inputReader = new InputStreamReader( socket.getInputStream(), UTF_8 );
+        // do not buffer large requests from clients that may not know the token
+        int maxLength = Math.min( MAX_UNAUTHENTICATED_REQUEST_LENGTH, maxRequestLength );
+        RequestReader reader = new RequestReader( inputReader, maxLength );
+        Writer writer = new BufferedWriter( new OutputStreamWriter( socket.getOutputStream(),
+                                                                    UTF_8 ) );
+        boolean authenticated = false;
+        String line = reader.readLine();
+        while( line != null ) {
+          if( line.trim().length() > 0 ) {
+            if( !authenticated && hasValidToken( line ) ) {
+              authenticated = true;
+              reader.setMaxLength( maxRequestLength );
+            }
+            writeResponse( writer, handleRequest( line ) );
+          }
+          line = reader.readLine();
+        }
+        if( reader.exceededLimit() ) {
+          // the rest of the request cannot be told apart from the next one, close the connection
+          String prefix = authenticated ? "Request" : "Unauthenticated request";
+          String message = prefix + " exceeds " + reader.getMaxLength() + " characters";
+          writeResponse( writer, new JsonObject().add( "error", message ).toString() );
+        }
+      } finally {
+        socket.close();
+      }
+    } catch( IOException exception ) {
+      // connection closed by client or read timed out
+    }
+  }
+
+  private static void rejectConnection( Socket socket ) {
+    try {
+      try {
+        Writer writer = new OutputStreamWriter( socket.getOutputStream(), UTF_8 );
+        writeResponse( writer, new JsonObject().add( "error", "Too many connections" ).toString() );
+      } finally {
+        socket.close();
+      }
+    } catch( IOException exception ) {
+      // connection closed by client
+    }
+  }
+
+  private static void writeResponse( Writer writer, String response ) throws IOException {
+    writer.write( response );
+    writer.write( '\n' );
+    writer.flush();
+  }
+
+  private boolean hasValidToken( String line ) {
+    try {
+      checkToken( JsonObject.readFrom( line ) );
+      return true;
+    } catch( RuntimeException exception ) {
+      return false;
+    }
+  }
+
+  private void checkToken( JsonObject request ) {
+    JsonValue value = request.get( "token" );
+    String requestToken = value != null && value.isString() ? value.asString() : "";
+    if( !MessageDigest.isEqual( toBytes( token ), toBytes( requestToken ) ) ) {
+      throw new IllegalArgumentException( "Invalid or missing token" );
+    }
+  }
+
+  private JsonObject handleCommand( String command ) {
+    if( "authenticate".equals( command ) ) {
+      // the token has already been checked
+      return new JsonObject().add( "authenticated", true );
+    }
+    if( "shutdown".equals( command ) ) {
+      shutdown();
+      return new JsonObject().add( "shutdown", true );
+    }
+    throw new IllegalArgumentException( "Unknown command: " + command );
+  }
+
+  private JsonObject check( JsonObject request ) throws IOException {
+    Text text = getText( request );
+    JsonValue options = request.get( "options" );
+    final JsonArray problems = new JsonArray();
+    ProblemHandler handler = new ProblemHandler() {
+      public void handleProblem( Problem problem ) {
+        problems.add( new JsonObject().add( "line", problem.getLine() )
+                                      .add( "character", problem.getCharacter() )
+                                      .add( "message", problem.getMessage() ) );
+      }
+    };
+    JSLint jslint = borrow();
+    try {
+      if( options != null ) {
+        jslint.configure( options.asObject() );
+      }
+      jslint.setTimeLimit( timeLimit );
+      jslint.check( text, handler );
+    } finally {
+      pool.release( jslint );
+    }
+    return new JsonObject().add( "problems", problems );
+  }
+
+  private Text getText( JsonObject request ) throws IOException {
+    JsonValue content = request.get( "content" );
+    if( content != null ) {
+      return new Text( content.asString() );
+    }
+    JsonValue path = request.get( "path" );
+    if( path != null ) {
+      return Text.read( new File( path.asString() ), charset );
+    }
+    throw new IllegalArgumentException( "Request must contain content or path" );
+  }
+
+  private JSLint borrow() {
+    try {
+      return pool.borrow();
+    } catch( InterruptedException exception ) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException( "Interrupted while waiting for JSLint", exception );
+    }
+  }
+
+  private static JsonObject createErrorResponse( Exception exception ) {
+    String message = exception.getMessage();
+    return new JsonObject().add( "error", message != null ? message : exception.toString() );
+  }
+
+  private static String createToken() {
+    byte[] bytes = new byte[ TOKEN_LENGTH / 2 ];
+    new SecureRandom().nextBytes( bytes );
+    StringBuilder builder = new StringBuilder( TOKEN_LENGTH );
+    for( byte value : bytes ) {
+      builder.append( Character.forDigit( ( value >> 4 ) & 0xf, 16 ) );
+      builder.append( Character.forDigit( value & 0xf, 16 ) );
+    }
+    return builder.toString();
+  }
+
+  private static byte[] toBytes( String string ) {
+    try {
+      return string.getBytes( UTF_8 );
+    } catch( UnsupportedEncodingException exception ) {
+      throw new RuntimeException( exception );
+    }
+  }
+
+  /*
+   * File permissions can only be changed with Java 6 or later. The methods are called reflectively
+   * to keep this bundle compatible with Java 5. File systems without permissions for others, like
+   * on Windows, cannot revoke them; there the token file must be placed in a private folder.
+   */
+  private static void restrictToOwner( File file ) throws IOException {
+    try {
+      for( String name : new String[] { "setReadable", "setWritable", "setExecutable" } ) {
+        Method method = File.class.getMethod( name, boolean.class, boolean.class );
+        boolean revoked = ( ( Boolean )method.invoke( file, Boolean.FALSE, Boolean.FALSE ) )
+          .booleanValue();
+        if( !revoked && File.separatorChar == '/' ) {
+          throw new IOException( "Could not restrict access to token file " + file );
+        }
+      }
+      for( String name : new String[] { "setReadable", "setWritable" } ) {
+        Method method = File.class.getMethod( name, boolean.class, boolean.class );
+        if( !( ( Boolean )method.invoke( file, Boolean.TRUE, Boolean.TRUE ) ).booleanValue() ) {
+          throw new IOException( "Could not grant access to token file " + file );
+        }
+      }
+    } catch( NoSuchMethodException exception ) {
+      throw new IOException( "Restricting access to the token file requires Java 6 or later" );
+    } catch( IllegalAccessException exception ) {
+      throw new RuntimeException( exception );
+    } catch( InvocationTargetException exception ) {
+      throw new RuntimeException( exception.getCause() );
+    }
+  }
+
+  /**
+   * Reads lines up to a maximum length. Unlike a BufferedReader, it does not buffer an entire line
+   * of arbitrary length.
+   */
+  private static final class RequestReader {
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int maxLength;
+    private int position;
+    private int limit;
+    private boolean exceededLimit;
+
+    RequestReader( Reader reader, int maxLength ) {
+      this.reader = reader;
+      this.maxLength = maxLength;
+      buffer = new char[ 8192 ];
+    }
+
+    /**
+     * Returns the next line without line break, or <code>null</code> at the end of the input or
+     * if the line is longer than the maximum length.
+     */
+    String readLine() throws IOException {
+      StringBuilder builder = null;
+      while( true ) {
+        if( position == limit ) {
+          limit = reader.read( buffer );
+          position = 0;
+          if( limit == -1 ) {
+            limit = 0;
+            return builder == null ? null : stripCarriageReturn( builder );
+          }
+        }
+        if( builder == null ) {
+          builder = new StringBuilder();
+        }
+        int start = position;
+        while( position < limit && buffer[ position ] != '\n' ) {
+          position++;
+        }
+        if( builder.length() + position - start > maxLength ) {
+          exceededLimit = true;
+          return null;
+        }
+        builder.append( buffer, start, position - start );
+        if( position < limit ) {
+          // skip the line break
+          position++;
+          return stripCarriageReturn( builder );
+        }
+      }
+    }
+
+    boolean exceededLimit() {
+      return exceededLimit;
+    }
+
+    int getMaxLength() {
+      return maxLength;
+    }
+
+    void setMaxLength( int maxLength ) {
+      this.maxLength = maxLength;
+    }
+
+    private static String stripCarriageReturn( StringBuilder builder ) {
+      int length = builder.length();
+      if( length > 0 && builder.charAt( length - 1 ) == '\r' ) {
+        builder.setLength( length - 1 );
+      }
+      return builder.toString();
+    }
+
+  }
+
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.mozilla.javascript.BaseFunction;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.NativeJavaPackage;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+import se.weightpoint.jslint.json.JsonObject;
+
+
+/**
+ * A compiled JSLint library. Instances can be shared across threads.
+ * <p>
+ * All scopes created by a library share a single scope that contains the standard objects. This
+ * shared scope is initialized once, including the extensions that JSLint adds to standard objects
+ * such as <code>String.prototype</code>, and then sealed. Every scope created by
+ * {@link #createScope(Context)} is a lightweight child scope that has the shared scope as its
+ * prototype and contains only the shims and the library's own objects.
+ * </p>
+ * <p>
+ * Options objects created from a configuration are also cached and shared. JSLint does not modify
+ * the options passed to it, therefore these objects are sealed and can be used by all instances.
+ * </p>
+ */
+public class JSLintLibrary {
+
+  private static final int MAX_OPTIONS = 16;
+  private final String checksum;
+  private final Script shim;
+  private final Script script;
+  private final Map<String, Scriptable> optionsCache;
+  private ScriptableObject sharedScope;
+
+  JSLintLibrary( String checksum, Script shim, Script script ) {
+    this.checksum = checksum;
+    this.shim = shim;
+    this.script = script;
+    optionsCache = new LinkedHashMap<String, Scriptable>( 16, 0.75f, true ) {
+      private static final long serialVersionUID = 1L;
+      @Override
+      protected boolean removeEldestEntry( Entry<String, Scriptable> eldest ) {
+        return size() > MAX_OPTIONS;
+      }
+    };
+  }
+
+  /**
+   * Returns a checksum of the library source. Libraries with the same checksum are identical.
+   *
+   * @return the checksum as hex string
+   */
+  public String getChecksum() {
+    return checksum;
+  }
+
+  /**
+   * Creates a new scope and executes the shim code and the library code in it. Every scope contains
+   * its own instance of the JSLint function.
+   *
+   * @param context
+   *          the current context
+   * @return a new scope that contains the library
+   */
+  public Scriptable createScope( Context context ) {
+    Scriptable scope = createChildScope( context, getSharedScope( context ) );
+    shim.exec( context, scope );
+    script.exec( context, scope );
+    return scope;
+  }
+
+  /**
+   * Returns the JavaScript options object for the given configuration. Options objects are cached
+   * by the canonical form of the configuration, equal configurations result in the same object.
+   *
+   * @param context
+   *          the current context
+   * @param configuration
+   *          the configuration to convert
+   * @return a sealed JavaScript object that contains the options
+   */
+  public Scriptable getOptions( Context context, JsonObject configuration ) {
+    String key = JsonConverter.toCanonicalString( configuration );
+    Scriptable scope = getSharedScope( context );
+    synchronized( optionsCache ) {
+      Scriptable options = optionsCache.get( key );
+      if( options == null ) {
+        options = ( Scriptable )JsonConverter.toJavaScript( context, scope, configuration );
+        optionsCache.put( key, options );
+      }
+      return options;
+    }
+  }
+
+  private synchronized ScriptableObject getSharedScope( Context context ) {
+    if( sharedScope == null ) {
+      ScriptableObject scope = context.initStandardObjects();
+      // Run the library once to let it add its extensions to the standard objects. Libraries only
+      // add these extensions if missing, so later runs don't attempt to modify the sealed objects.
+      Scriptable childScope = createChildScope( context, scope );
+      shim.exec( context, childScope );
+      script.exec( context, childScope );
+      seal( scope );
+      sharedScope = scope;
+    }
+    return sharedScope;
+  }
+
+  private static Scriptable createChildScope( Context context, Scriptable sharedScope ) {
+    Scriptable scope = context.newObject( sharedScope );
+    scope.setPrototype( sharedScope );
+    scope.setParentScope( null );
+    return scope;
+  }
+
+  private static void seal( ScriptableObject scope ) {
+    for( Object id : scope.getAllIds() ) {
+      if( id instanceof String ) {
+        Object value = scope.get( ( String )id, scope );
+        // Java packages create their members on demand and must not be sealed
+        if( value instanceof ScriptableObject && !( value instanceof NativeJavaPackage ) ) {
+          ( ( ScriptableObject )value ).sealObject();
+          if( value instanceof BaseFunction ) {
+            Object prototype = ScriptableObject.getProperty( ( Scriptable )value, "prototype" );
+            if( prototype instanceof ScriptableObject ) {
+              ( ( ScriptableObject )prototype ).sealObject();
+            }
+          }
+        }
+      }
+    }
+    scope.sealObject();
+  }
+
+}
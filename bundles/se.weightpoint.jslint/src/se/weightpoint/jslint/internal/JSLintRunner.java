@@ -10,57 +10,126 @@
  ******************************************************************************/
 package se.weightpoint.jslint.internal;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import se.weightpoint.jslint.CheckMonitor;
 import se.weightpoint.jslint.JSLint;
+import se.weightpoint.jslint.JSLintPool;
 import se.weightpoint.jslint.Problem;
 import se.weightpoint.jslint.ProblemHandler;
+import se.weightpoint.jslint.Text;
 import se.weightpoint.jslint.json.JsonObject;
 
 
 public class JSLintRunner {
 
+  /** Exit status when no problems were found. */
+  public static final int STATUS_OK = 0;
+  /** Exit status when problems were found, including runs that were stopped by fail-fast. */
+  public static final int STATUS_PROBLEMS = 1;
+  /** Exit status when the arguments are invalid or the files or JSLint could not be loaded. */
+  public static final int STATUS_ERROR = 2;
   private static final String PARAM_CHARSET = "--charset";
   private static final String PARAM_CUSTOM_JSLINT = "--custom";
+  private static final String PARAM_THREADS = "--threads";
+  private static final String PARAM_INCLUDE = "--include";
+  private static final String PARAM_EXCLUDE = "--exclude";
+  private static final String PARAM_DAEMON = "--daemon";
+  private static final String PARAM_MAX_PROBLEMS = "--max-problems";
+  private static final String PARAM_FAIL_FAST = "--fail-fast";
+  private static final String DEFAULT_INCLUDE = "//*.js";
+  // number of files that may be checked ahead of the output per thread
+  private static final int LOOKAHEAD_PER_THREAD = 4;
   private List<File> files;
   private Charset charset;
   private File library;
-  private JSLint jslint;
+  private int threadCount;
+  private List<PathPattern> includePatterns;
+  private List<PathPattern> excludePatterns;
+  private int daemonPort = -1;
+  private int maxProblems;
+  private boolean failFast;
+  private JSLintPool pool;
 
-  public void run( String... args ) {
+  /**
+   * Runs JSLint with the given command line arguments and prints the problems found.
+   *
+   * @param args
+   *          the command line arguments
+   * @return the exit status, one of {@link #STATUS_OK}, {@link #STATUS_PROBLEMS}, or
+   *         {@link #STATUS_ERROR}
+   */
+  public int run( String... args ) {
+    int status = STATUS_OK;
     try {
       readArgs( args );
       ensureCharset();
-      ensureInputFiles();
+      ensureThreadCount();
+      ensureIncludePatterns();
+      if( daemonPort == -1 ) {
+        ensureInputFiles();
+      }
       loadJSLint();
       configureJSLint();
-      processFiles();
+      if( daemonPort == -1 ) {
+        status = processFiles();
+      } else {
+        runDaemon();
+      }
     } catch( Exception e ) {
       System.out.println( e.getMessage() );
       System.out.println();
-      System.out.println( "Usage: JSLint [ <options> ] <input-file> [ <input-file> ... ]" );
+      System.out.println( "Usage: JSLint [ <options> ] <input> [ <input> ... ]" );
+      System.out.println( "       JSLint [ <options> ] --daemon <port>" );
+      System.out.println( "Inputs:  <input-file> or <input-directory>" );
       System.out.println( "Options: --custom <custom-jslint-file>" );
       System.out.println( "         --charset <charset>" );
+      System.out.println( "         --threads <number-of-threads>" );
+      System.out.println( "         --include <path-pattern> (for directories, default: //*.js)" );
+      System.out.println( "         --exclude <path-pattern> (for directories)" );
+      System.out.println( "         --max-problems <number-of-problems> (per file)" );
+      System.out.println( "         --fail-fast (stop after the first file with problems)" );
+      status = STATUS_ERROR;
     }
+    return status;
   }
 
   private void readArgs( String[] args ) {
     files = new ArrayList<File>();
+    includePatterns = new ArrayList<PathPattern>();
+    excludePatterns = new ArrayList<PathPattern>();
     String lastArg = null;
     for( String arg : args ) {
       if( PARAM_CHARSET.equals( lastArg ) ) {
         setCharset( arg );
       } else if( PARAM_CUSTOM_JSLINT.equals( lastArg ) ) {
         setLibrary( arg );
-      } else if( PARAM_CHARSET.equals( arg ) || PARAM_CUSTOM_JSLINT.equals( arg ) ) {
+      } else if( PARAM_THREADS.equals( lastArg ) ) {
+        setThreadCount( arg );
+      } else if( PARAM_INCLUDE.equals( lastArg ) ) {
+        includePatterns.add( createPattern( arg ) );
+      } else if( PARAM_EXCLUDE.equals( lastArg ) ) {
+        excludePatterns.add( createPattern( arg ) );
+      } else if( PARAM_DAEMON.equals( lastArg ) ) {
+        setDaemonPort( arg );
+      } else if( PARAM_MAX_PROBLEMS.equals( lastArg ) ) {
+        setMaxProblems( arg );
+      } else if( PARAM_FAIL_FAST.equals( arg ) ) {
+        failFast = true;
+      } else if( isParameter( arg ) ) {
         // continue
       } else {
         File file = new File( arg );
@@ -71,8 +140,18 @@ public class JSLintRunner {
     }
   }
 
+  private static boolean isParameter( String arg ) {
+    return PARAM_CHARSET.equals( arg )
+        || PARAM_CUSTOM_JSLINT.equals( arg )
+        || PARAM_THREADS.equals( arg )
+        || PARAM_INCLUDE.equals( arg )
+        || PARAM_EXCLUDE.equals( arg )
+        || PARAM_DAEMON.equals( arg )
+        || PARAM_MAX_PROBLEMS.equals( arg );
+  }
+
   private void checkFile( File file ) throws IllegalArgumentException {
-    if( !file.isFile() ) {
+    if( !file.exists() ) {
       throw new IllegalArgumentException( "No such file: " + file.getAbsolutePath() );
     }
     if( !file.canRead() ) {
@@ -98,6 +177,60 @@ public class JSLintRunner {
     library = new File( name );
   }
 
+  private static PathPattern createPattern( String expression ) {
+    try {
+      return PathPattern.create( expression );
+    } catch( IllegalArgumentException exception ) {
+      String message = "Invalid path pattern: " + expression + ": " + exception.getMessage();
+      throw new IllegalArgumentException( message );
+    }
+  }
+
+  private void ensureIncludePatterns() {
+    if( includePatterns.isEmpty() ) {
+      includePatterns.add( PathPattern.create( DEFAULT_INCLUDE ) );
+    }
+  }
+
+  private void setDaemonPort( String value ) {
+    try {
+      daemonPort = Integer.parseInt( value );
+    } catch( NumberFormatException exception ) {
+      daemonPort = -1;
+    }
+    if( daemonPort < 0 || daemonPort > 65535 ) {
+      throw new IllegalArgumentException( "Invalid port: " + value );
+    }
+  }
+
+  private void ensureThreadCount() {
+    if( threadCount == 0 ) {
+      threadCount = Runtime.getRuntime().availableProcessors();
+    }
+  }
+
+  private void setThreadCount( String value ) {
+    try {
+      threadCount = Integer.parseInt( value );
+    } catch( NumberFormatException exception ) {
+      threadCount = -1;
+    }
+    if( threadCount < 1 ) {
+      throw new IllegalArgumentException( "Invalid number of threads: " + value );
+    }
+  }
+
+  private void setMaxProblems( String value ) {
+    try {
+      maxProblems = Integer.parseInt( value );
+    } catch( NumberFormatException exception ) {
+      maxProblems = -1;
+    }
+    if( maxProblems < 1 ) {
+      throw new IllegalArgumentException( "Invalid number of problems: " + value );
+    }
+  }
+
   private void ensureInputFiles() {
     if( files.isEmpty() ) {
       throw new IllegalArgumentException( "No input files" );
@@ -105,17 +238,17 @@ public class JSLintRunner {
   }
 
   private void loadJSLint() {
-    jslint = new JSLint();
+    pool = new JSLintPool( threadCount );
     try {
       if( library != null ) {
         FileInputStream inputStream = new FileInputStream( library );
         try {
-          jslint.load( inputStream );
+          pool.load( inputStream );
         } finally {
           inputStream.close();
         }
       } else {
-        jslint.load();
+        pool.load();
       }
     } catch( Exception exception ) {
       String message = "Failed to load JSLint library: " + exception.getMessage();
@@ -123,49 +256,213 @@ public class JSLintRunner {
     }
   }
 
-  private void processFiles() throws IOException {
-    for( File file : files ) {
-      String code = readFileContents( file );
-      ProblemHandler handler = new SysoutProblemHandler( file.getAbsolutePath() );
-      jslint.check( code, handler );
-    }
-  }
-
   private void configureJSLint() {
     JsonObject configuration = new JsonObject();
     configuration.add( "undef", true );
-    jslint.configure( configuration );
+    pool.configure( configuration );
+  }
+
+  private void runDaemon() throws IOException {
+    JSLintDaemon daemon = new JSLintDaemon( pool, charset );
+    int port = daemon.bind( daemonPort );
+    File tokenFile = new File( System.getProperty( "user.home" ), ".jslint-daemon-" + port );
+    try {
+      daemon.writeTokenFile( tokenFile );
+      System.out.println( "Listening on port " + port );
+      System.out.println( "Session token in " + tokenFile.getAbsolutePath() );
+      daemon.serve();
+    } finally {
+      daemon.shutdown();
+    }
   }
 
-  private String readFileContents( File file ) throws FileNotFoundException, IOException {
-    FileInputStream inputStream = new FileInputStream( file );
-    BufferedReader reader = new BufferedReader( new InputStreamReader( inputStream, charset ) );
+  private int processFiles() throws IOException {
+    FileWalker walker = new FileWalker( includePatterns, excludePatterns );
+    CheckPipeline pipeline = new CheckPipeline();
     try {
-      StringBuilder builder = new StringBuilder();
-      String line = reader.readLine();
-      while( line != null ) {
-        builder.append( line );
-        builder.append( '\n' );
-        line = reader.readLine();
-      }
-      return builder.toString();
+      for( File file : files ) {
+        boolean proceed;
+        if( file.isDirectory() ) {
+          proceed = walker.walk( file, pipeline );
+        } else {
+          proceed = pipeline.handleFile( file );
+        }
+        if( !proceed ) {
+          break;
+        }
+      }
+      pipeline.finish();
     } finally {
-      reader.close();
+      pipeline.dispose();
+    }
+    return pipeline.hasProblems() ? STATUS_PROBLEMS : STATUS_OK;
+  }
+
+  private static List<String> getResult( Future<List<String>> future ) throws IOException {
+    try {
+      return future.get();
+    } catch( InterruptedException exception ) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException( "Interrupted while checking files", exception );
+    } catch( ExecutionException exception ) {
+      Throwable cause = exception.getCause();
+      if( cause instanceof IOException ) {
+        throw ( IOException )cause;
+      }
+      if( cause instanceof RuntimeException ) {
+        throw ( RuntimeException )cause;
+      }
+      throw new RuntimeException( cause );
+    }
+  }
+
+  private static void printResult( List<String> lines ) {
+    for( String line : lines ) {
+      System.out.println( line );
     }
   }
 
-  private static final class SysoutProblemHandler implements ProblemHandler {
+  /**
+   * Checks files as they are added and prints the results in the order the files were added.
+   * Files are checked ahead of the output only up to a limited number to keep the memory used for
+   * pending results bounded. In fail-fast mode, the pipeline stops after the first file with
+   * problems. Checks that are still running are then aborted, and files added after this are
+   * ignored.
+   */
+  private final class CheckPipeline implements FileWalker.FileHandler, CheckMonitor {
+
+    private final ExecutorService executor;
+    private final Queue<Future<List<String>>> pending;
+    private final int lookahead;
+    private volatile boolean stopped;
+    private boolean problems;
+
+    CheckPipeline() {
+      executor = threadCount > 1 ? Executors.newFixedThreadPool( threadCount ) : null;
+      pending = new LinkedList<Future<List<String>>>();
+      lookahead = threadCount * LOOKAHEAD_PER_THREAD;
+    }
+
+    public boolean handleFile( File file ) throws IOException {
+      if( stopped ) {
+        return false;
+      }
+      if( executor == null ) {
+        handleResult( new CheckTask( file, this ).call() );
+      } else {
+        pending.add( executor.submit( new CheckTask( file, this ) ) );
+        if( pending.size() > lookahead ) {
+          handleResult( getResult( pending.remove() ) );
+        }
+      }
+      return !stopped;
+    }
+
+    public boolean isCanceled() {
+      // running checks are interrupted when they are cancelled
+      return stopped || Thread.currentThread().isInterrupted();
+    }
+
+    void finish() throws IOException {
+      while( !pending.isEmpty() && !stopped ) {
+        handleResult( getResult( pending.remove() ) );
+      }
+    }
+
+    boolean hasProblems() {
+      return problems;
+    }
+
+    private void handleResult( List<String> lines ) {
+      printResult( lines );
+      if( !lines.isEmpty() ) {
+        problems = true;
+        if( failFast ) {
+          stop();
+        }
+      }
+    }
+
+    private void stop() {
+      stopped = true;
+      for( Future<List<String>> future : pending ) {
+        future.cancel( true );
+      }
+      pending.clear();
+    }
+
+    void dispose() {
+      if( executor != null ) {
+        executor.shutdownNow();
+        awaitTermination();
+      }
+    }
+
+    private void awaitTermination() {
+      try {
+        // running checks notice the interruption and abort
+        while( !executor.awaitTermination( 1, TimeUnit.SECONDS ) ) {
+          // continue waiting
+        }
+      } catch( InterruptedException exception ) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+  }
+
+  private final class CheckTask implements Callable<List<String>> {
+
+    private final File file;
+    private final CheckMonitor monitor;
+
+    CheckTask( File file, CheckMonitor monitor ) {
+      this.file = file;
+      this.monitor = monitor;
+    }
+
+    public List<String> call() throws IOException {
+      Text text = Text.read( file, charset );
+      BufferingProblemHandler handler = new BufferingProblemHandler( file.getAbsolutePath() );
+      JSLint jslint = borrow();
+      try {
+        jslint.setMaxProblems( maxProblems );
+        jslint.check( text, handler, monitor );
+      } finally {
+        pool.release( jslint );
+      }
+      return handler.getLines();
+    }
+
+    private JSLint borrow() {
+      try {
+        return pool.borrow();
+      } catch( InterruptedException exception ) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException( "Interrupted while checking files", exception );
+      }
+    }
+
+  }
+
+  private static final class BufferingProblemHandler implements ProblemHandler {
 
     private final String fileName;
+    private final List<String> lines;
 
-    public SysoutProblemHandler( String fileName ) {
+    public BufferingProblemHandler( String fileName ) {
       this.fileName = fileName;
+      lines = new ArrayList<String>();
     }
 
     public void handleProblem( Problem problem ) {
       int line = problem.getLine();
       String message = problem.getMessage();
-      System.out.println( "Problem in file " + fileName + " at line " + line + ": " + message );
+      lines.add( "Problem in file " + fileName + " at line " + line + ": " + message );
+    }
+
+    List<String> getLines() {
+      return lines;
     }
 
   }
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import java.util.List;
+import java.util.TreeSet;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+import se.weightpoint.jslint.json.JsonArray;
+import se.weightpoint.jslint.json.JsonObject;
+import se.weightpoint.jslint.json.JsonValue;
+
+
+/**
+ * Converts JSON values into JavaScript objects and into canonical strings.
+ */
+public class JsonConverter {
+
+  private JsonConverter() {
+    // prevent instantiation
+  }
+
+  /**
+   * Returns a canonical string representation of the given value. Values that are equal except
+   * for the order of their object members have the same canonical representation.
+   *
+   * @param value
+   *          the value to convert
+   * @return the canonical JSON string
+   */
+  public static String toCanonicalString( JsonValue value ) {
+    StringBuilder builder = new StringBuilder();
+    appendCanonical( builder, value );
+    return builder.toString();
+  }
+
+  /**
+   * Converts the given value into a JavaScript value. Objects and arrays are created in the given
+   * scope and sealed, so that they can be shared.
+   *
+   * @param context
+   *          the current context
+   * @param scope
+   *          the scope to create objects and arrays in
+   * @param value
+   *          the value to convert
+   * @return the JavaScript value
+   */
+  static Object toJavaScript( Context context, Scriptable scope, JsonValue value ) {
+    Object result;
+    if( value.isObject() ) {
+      result = toJavaScript( context, scope, value.asObject() );
+    } else if( value.isArray() ) {
+      result = toJavaScript( context, scope, value.asArray() );
+    } else if( value.isString() ) {
+      result = value.asString();
+    } else if( value.isNumber() ) {
+      result = Double.valueOf( value.asDouble() );
+    } else if( value.isBoolean() ) {
+      result = Boolean.valueOf( value.asBoolean() );
+    } else {
+      result = null;
+    }
+    return result;
+  }
+
+  private static Scriptable toJavaScript( Context context, Scriptable scope, JsonObject object ) {
+    ScriptableObject result = ( ScriptableObject )context.newObject( scope );
+    for( String name : object.names() ) {
+      result.put( name, result, toJavaScript( context, scope, object.get( name ) ) );
+    }
+    result.sealObject();
+    return result;
+  }
+
+  private static Scriptable toJavaScript( Context context, Scriptable scope, JsonArray array ) {
+    List<JsonValue> values = array.values();
+    Object[] elements = new Object[ values.size() ];
+    for( int i = 0; i < elements.length; i++ ) {
+      elements[ i ] = toJavaScript( context, scope, values.get( i ) );
+    }
+    ScriptableObject result = ( ScriptableObject )context.newArray( scope, elements );
+    result.sealObject();
+    return result;
+  }
+
+  private static void appendCanonical( StringBuilder builder, JsonValue value ) {
+    if( value.isObject() ) {
+      JsonObject object = value.asObject();
+      builder.append( '{' );
+      boolean first = true;
+      for( String name : new TreeSet<String>( object.names() ) ) {
+        if( !first ) {
+          builder.append( ',' );
+        }
+        builder.append( JsonValue.valueOf( name ) ).append( ':' );
+        appendCanonical( builder, object.get( name ) );
+        first = false;
+      }
+      builder.append( '}' );
+    } else if( value.isArray() ) {
+      builder.append( '[' );
+      boolean first = true;
+      for( JsonValue element : value.asArray() ) {
+        if( !first ) {
+          builder.append( ',' );
+        }
+        appendCanonical( builder, element );
+        first = false;
+      }
+      builder.append( ']' );
+    } else {
+      builder.append( value );
+    }
+  }
+
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.RhinoException;
+import org.mozilla.javascript.Script;
+
+
+/**
+ * Process-wide cache for compiled JSLint libraries. Compiling the JSLint library is by far the
+ * most expensive part of loading it, hence compiled libraries are kept and shared. Libraries are
+ * identified by a checksum of their source code, so that the built-in library and any custom
+ * library file are covered alike, and a changed library file results in a new entry.
+ */
+public class LibraryCache {
+
+  private static final int MAX_SIZE = 4;
+  private static final Map<String, JSLintLibrary> libraries = createMap();
+
+  private LibraryCache() {
+    // prevent instantiation
+  }
+
+  /**
+   * Returns the compiled library for the given source code. The source is compiled only if it is
+   * not found in the cache.
+   *
+   * @param source
+   *          the source code of the JSLint library
+   * @return the compiled library, never <code>null</code>
+   * @throws IllegalArgumentException
+   *           if the source code cannot be compiled
+   */
+  public static JSLintLibrary getLibrary( String source ) {
+    if( source == null ) {
+      throw new NullPointerException( "source is null" );
+    }
+    String checksum = createChecksum( source );
+    synchronized( libraries ) {
+      JSLintLibrary library = libraries.get( checksum );
+      if( library == null ) {
+        library = compile( checksum, source );
+        libraries.put( checksum, library );
+      }
+      return library;
+    }
+  }
+
+  static void clear() {
+    synchronized( libraries ) {
+      libraries.clear();
+    }
+  }
+
+  private static JSLintLibrary compile( String checksum, String source ) {
+    // observing contexts are required to generate the instruction counting code
+    Context context = ObservingContextFactory.getInstance().enterContext();
+    try {
+      context.setOptimizationLevel( 9 );
+      context.setLanguageVersion( Context.VERSION_1_5 );
+      Script shim = context.compileString( createShimCode(), "shim", 1, null );
+      Script script = context.compileString( source, "jslint library", 1, null );
+      return new JSLintLibrary( checksum, shim, script );
+    } catch( RhinoException exception ) {
+      throw new IllegalArgumentException( "Could not evaluate JavaScript input", exception );
+    } finally {
+      Context.exit();
+    }
+  }
+
+  private static String createShimCode() {
+    // Create shims to prevent problems with JSLint accessing objects that are not available in
+    // Rhino, e.g. https://github.com/jshint/jshint/issues/1038
+    return "console = {log:function(){},error:function(){},trace:function(){}};"
+         + "window = {};";
+  }
+
+  static String createChecksum( String source ) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance( "SHA-1" );
+      byte[] bytes = digest.digest( source.getBytes( "UTF-8" ) );
+      StringBuilder builder = new StringBuilder( bytes.length * 2 );
+      for( byte value : bytes ) {
+        builder.append( Character.forDigit( ( value >> 4 ) & 0xf, 16 ) );
+        builder.append( Character.forDigit( value & 0xf, 16 ) );
+      }
+      return builder.toString();
+    } catch( NoSuchAlgorithmException exception ) {
+      throw new RuntimeException( exception );
+    } catch( UnsupportedEncodingException exception ) {
+      throw new RuntimeException( exception );
+    }
+  }
+
+  @SuppressWarnings( "serial" )
+  private static Map<String, JSLintLibrary> createMap() {
+    return new LinkedHashMap<String, JSLintLibrary>( MAX_SIZE, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Entry<String, JSLintLibrary> eldest ) {
+        return size() > MAX_SIZE;
+      }
+    };
+  }
+
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+
+
+/**
+ * A context factory that creates contexts which periodically report the progress of script
+ * execution to an observer. An observer can abort a running script by throwing an
+ * {@link Error} from {@link InstructionObserver#observeInstructions()}.
+ * <p>
+ * Rhino generates the code to count instructions only for scripts that are compiled in a context
+ * with an instruction threshold. Therefore both compiling and running scripts must use contexts
+ * created by this factory.
+ * </p>
+ */
+public class ObservingContextFactory extends ContextFactory {
+
+  // number of instructions between two notifications of the observer
+  static final int INSTRUCTION_THRESHOLD = 100000;
+  private static final Object OBSERVER_KEY = InstructionObserver.class;
+  private static final ObservingContextFactory INSTANCE = new ObservingContextFactory();
+
+  private ObservingContextFactory() {
+    // singleton
+  }
+
+  /**
+   * Returns the shared instance of this factory. Contexts are entered using
+   * {@link #enterContext()}, every call must be balanced by a call to {@link Context#exit()}.
+   *
+   * @return the shared factory
+   */
+  public static ObservingContextFactory getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Sets the observer to notify while scripts are executed in the given context.
+   *
+   * @param context
+   *          a context created by this factory
+   * @param observer
+   *          the observer to notify, or <code>null</code> to remove the current observer
+   */
+  public static void setObserver( Context context, InstructionObserver observer ) {
+    if( observer == null ) {
+      context.removeThreadLocal( OBSERVER_KEY );
+    } else {
+      context.putThreadLocal( OBSERVER_KEY, observer );
+    }
+  }
+
+  @Override
+  protected Context makeContext() {
+    Context context = super.makeContext();
+    context.setInstructionObserverThreshold( INSTRUCTION_THRESHOLD );
+    return context;
+  }
+
+  @Override
+  protected void observeInstructionCount( Context context, int instructionCount ) {
+    InstructionObserver observer = ( InstructionObserver )context.getThreadLocal( OBSERVER_KEY );
+    if( observer != null ) {
+      observer.observeInstructions();
+    }
+  }
+
+  /**
+   * Receives notifications while scripts are executed.
+   */
+  public interface InstructionObserver {
+
+    /**
+     * Called periodically while a script is executed. Implementations can abort the script by
+     * throwing an {@link Error}, which cannot be caught by the script.
+     */
+    void observeInstructions();
+
+  }
+
+}
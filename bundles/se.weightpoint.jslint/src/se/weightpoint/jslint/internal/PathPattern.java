@@ -8,7 +8,7 @@
  * Contributors:
  *    Ralf Sternberg initial implementation and API
  ******************************************************************************/
-package se.weightpoint.jslint.ui.internal.preferences;
+package se.weightpoint.jslint.internal;
 
 
 /**
@@ -77,7 +77,7 @@ public class PathPattern {
     if( segmentPatterns.length == 1 ) {
       return pathSegments.length == 0;
     }
-    return match( 0, 0, pathSegments );
+    return match( pathSegments );
   }
 
   /**
@@ -133,35 +133,68 @@ public class PathPattern {
     return builder.toString();
   }
 
+  /**
+   * Returns the segment patterns of this pattern, the last one being the file part. The returned
+   * array must not be modified.
+   */
+  PathSegmentPattern[] getSegmentPatterns() {
+    return segmentPatterns;
+  }
+
   private PathSegmentPattern getFileSegmentPattern() {
     return segmentPatterns[ segmentPatterns.length - 1 ];
   }
 
-  private boolean match( int patternPos, int inputPos, String[] segments ) {
-    if( patternPos == segmentPatterns.length - 1 ) {
-      // pattern is eaten up ( -1 because we ignore the file segment )
-      return inputPos == segments.length;
-    }
-    if( inputPos == segments.length ) {
-      // input is eaten up
-      if( segmentPatterns[ patternPos ] == PathSegmentPattern.ANY_NUMBER ) {
-        return match( patternPos + 1, inputPos, segments );
+  /*
+   * Simulates the pattern as an automaton whose states are the positions in the path part of the
+   * pattern. A '//' stays active on any segment and also activates the next state, thus all
+   * alternatives are tracked at once instead of trying them one after another. This takes time
+   * proportional to the number of segments times the length of the pattern.
+   */
+  private boolean match( String[] segments ) {
+    int count = segmentPatterns.length - 1;
+    boolean[] states = new boolean[ count + 1 ];
+    boolean[] nextStates = new boolean[ count + 1 ];
+    states[ 0 ] = true;
+    followAnyNumber( states );
+    for( String segment : segments ) {
+      boolean active = false;
+      nextStates[ count ] = false;
+      for( int i = 0; i < count; i++ ) {
+        // a '//' consumes the segment and remains active
+        nextStates[ i ] = states[ i ] && segmentPatterns[ i ] == PathSegmentPattern.ANY_NUMBER;
+        active |= nextStates[ i ];
       }
-      return false;
-    }
-    if( segmentPatterns[ patternPos ] == PathSegmentPattern.ANY_NUMBER ) {
-      int nextInputPos = inputPos;
-      while( nextInputPos <= segments.length ) {
-        if( match( patternPos + 1, nextInputPos, segments ) ) {
-          return true;
+      for( int i = 0; i < count; i++ ) {
+        PathSegmentPattern pattern = segmentPatterns[ i ];
+        if(    states[ i ]
+            && pattern != PathSegmentPattern.ANY_NUMBER
+            && pattern.matches( segment ) )
+        {
+          nextStates[ i + 1 ] = true;
+          active = true;
         }
-        nextInputPos++;
       }
-      return false;
-    } else if( segmentPatterns[ patternPos ].matches( segments[ inputPos ] ) ) {
-      return match( patternPos + 1, inputPos + 1, segments );
+      if( !active ) {
+        return false;
+      }
+      followAnyNumber( nextStates );
+      boolean[] swap = states;
+      states = nextStates;
+      nextStates = swap;
+    }
+    return states[ count ];
+  }
+
+  /*
+   * A '//' also matches zero segments, so the state after an active '//' is active as well.
+   */
+  private void followAnyNumber( boolean[] states ) {
+    for( int i = 0; i < states.length - 1; i++ ) {
+      if( states[ i ] && segmentPatterns[ i ] == PathSegmentPattern.ANY_NUMBER ) {
+        states[ i + 1 ] = true;
+      }
     }
-    return false;
   }
 
   private static void checkExpression( String expression ) {
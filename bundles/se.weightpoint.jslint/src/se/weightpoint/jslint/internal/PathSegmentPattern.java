@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2012 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+
+public class PathSegmentPattern {
+
+  public static final PathSegmentPattern ALL = new PathSegmentPattern( "*" );
+  public static final PathSegmentPattern NONE = new PathSegmentPattern( "" );
+  public static final PathSegmentPattern ANY_NUMBER = new PathSegmentPattern( "" );
+
+  private final String expression;
+
+  private final Matcher matcher;
+
+  private PathSegmentPattern( String expression ) {
+    this.expression = checkExpression( expression );
+    matcher = new Matcher( expression );
+  }
+
+  public static PathSegmentPattern create( String expression ) {
+    if( expression == null ) {
+      throw new NullPointerException( "parameter is null" );
+    }
+    if( "".equals( expression ) ) {
+      return NONE;
+    }
+    if( "*".equals( expression ) ) {
+      return ALL;
+    }
+    return new PathSegmentPattern( expression );
+  }
+
+  public boolean matches( CharSequence string ) {
+    if( this == ALL || this == ANY_NUMBER ) {
+      return true;
+    }
+    if( this == NONE ) {
+      return false;
+    }
+    return matcher.match( string );
+  }
+
+  @Override
+  public String toString() {
+    if( this == ANY_NUMBER ) {
+      return "//";
+    }
+    if( this == NONE ) {
+      return "NONE";
+    }
+    return expression;
+  }
+
+  private static String checkExpression( String expression ) {
+    int length = expression.length();
+    for( int i = 0; i < length; i++ ) {
+      char ch = expression.charAt( i );
+      if( isIllegalCharacter( ch ) ) {
+        throw new IllegalArgumentException( "Illegal character in expression: '" + ch + "'" );
+      }
+    }
+    return expression;
+  }
+
+  private static boolean isIllegalCharacter( char ch ) {
+    return ch == '!'
+           || ch == '+'
+           || ch == ':'
+           || ch == '|'
+           || ch == '('
+           || ch == ')'
+           || ch == '['
+           || ch == ']'
+           || ch == '}'
+           || ch == '{'
+           || ch == '/'
+           || ch == '\\';
+  }
+
+  /*
+   * Matches globs with '*' and '?' without copying the input. Patterns with at most one '*', like
+   * "*.js" or "vendor*", are matched by comparing prefix and suffix. Other patterns are matched
+   * by a greedy scan that backtracks only to the last '*'.
+   */
+  private static class Matcher {
+
+    private final char[] pattern;
+    // position of the only '*' in the pattern, -1 if there is none, -2 if there are several
+    private final int starPos;
+
+    public Matcher( String pattern ) {
+      this.pattern = removeSuccessiveStars( pattern ).toCharArray();
+      starPos = findSingleStar( this.pattern );
+    }
+
+    public boolean match( CharSequence input ) {
+      int length = input.length();
+      if( starPos == -1 ) {
+        return length == pattern.length && matchRegion( input, 0, 0, pattern.length );
+      }
+      if( starPos >= 0 ) {
+        int suffixLength = pattern.length - starPos - 1;
+        return    length >= pattern.length - 1
+               && matchRegion( input, 0, 0, starPos )
+               && matchRegion( input, length - suffixLength, starPos + 1, suffixLength );
+      }
+      return matchWithStars( input, length );
+    }
+
+    private boolean matchWithStars( CharSequence input, int length ) {
+      int patternPos = 0;
+      int inputPos = 0;
+      int lastStar = -1;
+      int lastStarInputPos = 0;
+      while( inputPos < length ) {
+        if( patternPos < pattern.length && pattern[ patternPos ] == '*' ) {
+          lastStar = patternPos++;
+          lastStarInputPos = inputPos;
+        } else if(    patternPos < pattern.length
+                   && matchChar( pattern[ patternPos ], input.charAt( inputPos ) ) )
+        {
+          patternPos++;
+          inputPos++;
+        } else if( lastStar != -1 ) {
+          // let the last '*' consume one more character and retry
+          patternPos = lastStar + 1;
+          inputPos = ++lastStarInputPos;
+        } else {
+          return false;
+        }
+      }
+      while( patternPos < pattern.length && pattern[ patternPos ] == '*' ) {
+        patternPos++;
+      }
+      return patternPos == pattern.length;
+    }
+
+    private boolean matchRegion( CharSequence input, int inputPos, int patternPos, int length ) {
+      for( int i = 0; i < length; i++ ) {
+        if( !matchChar( pattern[ patternPos + i ], input.charAt( inputPos + i ) ) ) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean matchChar( char patternChar, char ch ) {
+      return patternChar == ch || patternChar == '?';
+    }
+
+    private static String removeSuccessiveStars( String pattern ) {
+      StringBuilder builder = new StringBuilder( pattern.length() );
+      for( int i = 0; i < pattern.length(); i++ ) {
+        char ch = pattern.charAt( i );
+        if( ch != '*' || i == 0 || pattern.charAt( i - 1 ) != '*' ) {
+          builder.append( ch );
+        }
+      }
+      return builder.toString();
+    }
+
+    private static int findSingleStar( char[] pattern ) {
+      int result = -1;
+      for( int i = 0; i < pattern.length; i++ ) {
+        if( pattern[ i ] == '*' ) {
+          if( result != -1 ) {
+            return -2;
+          }
+          result = i;
+        }
+      }
+      return result;
+    }
+
+  }
+
+}
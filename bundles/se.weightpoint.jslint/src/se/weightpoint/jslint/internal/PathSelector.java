@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Selects files using a list of include patterns and a list of exclude patterns. A file is
+ * selected if it matches any of the include patterns and none of the exclude patterns.
+ * <p>
+ * All patterns are compiled into a single automaton whose states are the positions in the path
+ * part of the patterns. The set of active states is kept in a bit set and advanced once per path
+ * segment. Every distinct segment pattern is matched at most once per segment, regardless of the
+ * number of patterns that contain it. Selecting a file does not create any objects.
+ * </p>
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ * </p>
+ */
+public class PathSelector {
+
+  private final int wordCount;
+  private final long[] initialStates;
+  private final long[] anyNumberStates;
+  private final PathSegmentPattern[] segmentPatterns;
+  private final long[][] segmentStates;
+  private final PathSegmentPattern[] filePatterns;
+  private final long[][] includeStates;
+  private final long[][] excludeStates;
+  private final long[] includePatternStates;
+  private final long[] excludeSubtreeStates;
+  private final boolean hasIncludePatterns;
+  private final ThreadLocal<long[][]> buffers;
+
+  private PathSelector( List<PathPattern> includePatterns, List<PathPattern> excludePatterns ) {
+    List<PathPattern> patterns = new ArrayList<PathPattern>( includePatterns );
+    patterns.addAll( excludePatterns );
+    int stateCount = 0;
+    for( PathPattern pattern : patterns ) {
+      // one state per path segment and one for the file segment
+      stateCount += pattern.getSegmentPatterns().length;
+    }
+    wordCount = Math.max( 1, ( stateCount + 63 ) >>> 6 );
+    initialStates = new long[ wordCount ];
+    anyNumberStates = new long[ wordCount ];
+    includePatternStates = new long[ wordCount ];
+    excludeSubtreeStates = new long[ wordCount ];
+    Map<String, long[]> segmentMap = new LinkedHashMap<String, long[]>();
+    Map<String, long[]> includeMap = new LinkedHashMap<String, long[]>();
+    Map<String, long[]> excludeMap = new LinkedHashMap<String, long[]>();
+    Map<String, PathSegmentPattern> patternMap = new LinkedHashMap<String, PathSegmentPattern>();
+    int state = 0;
+    for( int i = 0; i < patterns.size(); i++ ) {
+      PathSegmentPattern[] segments = patterns.get( i ).getSegmentPatterns();
+      boolean isInclude = i < includePatterns.size();
+      setBit( initialStates, state );
+      for( int j = 0; j < segments.length; j++ ) {
+        PathSegmentPattern segment = segments[ j ];
+        if( isInclude ) {
+          setBit( includePatternStates, state );
+        }
+        if( j == segments.length - 1 ) {
+          setBit( getStates( isInclude ? includeMap : excludeMap, patternMap, segment ), state );
+        } else if( segment == PathSegmentPattern.ANY_NUMBER ) {
+          setBit( anyNumberStates, state );
+          if( !isInclude && isSubtreePattern( segments, j ) ) {
+            setBit( excludeSubtreeStates, state );
+          }
+        } else {
+          setBit( getStates( segmentMap, patternMap, segment ), state );
+        }
+        state++;
+      }
+    }
+    close( initialStates );
+    segmentPatterns = getPatterns( segmentMap, patternMap );
+    segmentStates = segmentMap.values().toArray( new long[ segmentMap.size() ][] );
+    for( String expression : excludeMap.keySet() ) {
+      getStates( includeMap, patternMap, patternMap.get( expression ) );
+    }
+    for( String expression : includeMap.keySet() ) {
+      getStates( excludeMap, patternMap, patternMap.get( expression ) );
+    }
+    filePatterns = getPatterns( includeMap, patternMap );
+    includeStates = includeMap.values().toArray( new long[ includeMap.size() ][] );
+    excludeStates = new long[ filePatterns.length ][];
+    for( int i = 0; i < filePatterns.length; i++ ) {
+      excludeStates[ i ] = excludeMap.get( filePatterns[ i ].toString() );
+    }
+    hasIncludePatterns = !includePatterns.isEmpty();
+    buffers = new ThreadLocal<long[][]>() {
+      @Override
+      protected long[][] initialValue() {
+        return new long[ 2 ][ wordCount ];
+      }
+    };
+  }
+
+  /**
+   * Creates a selector for the given patterns.
+   *
+   * @param includePatterns
+   *          the patterns that select files
+   * @param excludePatterns
+   *          the patterns that exclude files that are selected by the include patterns
+   * @return the new selector
+   */
+  public static PathSelector create( List<PathPattern> includePatterns,
+                                     List<PathPattern> excludePatterns )
+  {
+    return new PathSelector( includePatterns, excludePatterns );
+  }
+
+  /**
+   * Returns whether this selector has any include patterns. A selector without include patterns
+   * does not select any files.
+   *
+   * @return <code>true</code> if there are include patterns
+   */
+  public boolean hasIncludePatterns() {
+    return hasIncludePatterns;
+  }
+
+  /**
+   * Checks whether the file with the given name in the given folder is selected.
+   *
+   * @param folderSegments
+   *          the names of the path segments of the folder that contains the file
+   * @param fileName
+   *          the name of the file, not including the path
+   * @return <code>true</code> if the file matches an include pattern and no exclude pattern
+   */
+  public boolean selectsFile( String[] folderSegments, String fileName ) {
+    if( !hasIncludePatterns ) {
+      return false;
+    }
+    long[] states = matchFolder( folderSegments );
+    if( states == null ) {
+      return false;
+    }
+    return matchesFile( states, fileName );
+  }
+
+  /**
+   * Checks whether any file in the given folder or in one of its sub-folders can be selected. If
+   * this method returns <code>false</code>, the folder can be skipped entirely. This is the case
+   * if no include pattern can match any path in the folder, or if an exclude pattern matches all
+   * files in the folder and all of its sub-folders, like <code>node_modules//</code> does.
+   *
+   * @param folderSegments
+   *          the names of the path segments of the folder
+   * @return <code>false</code> if no file in the folder or its sub-folders can be selected
+   */
+  public boolean selectsFolder( String[] folderSegments ) {
+    if( !hasIncludePatterns ) {
+      return false;
+    }
+    long[] states = matchFolder( folderSegments );
+    if( states == null ) {
+      return false;
+    }
+    // from every active state of an include pattern, there is a path to a matching file
+    return intersects( states, includePatternStates )
+           && !intersects( states, excludeSubtreeStates );
+  }
+
+  /*
+   * Returns the states that are active after the given segments, or null if there are none. The
+   * returned array is a thread local buffer.
+   */
+  private long[] matchFolder( String[] folderSegments ) {
+    long[][] buffer = buffers.get();
+    long[] states = buffer[ 0 ];
+    long[] nextStates = buffer[ 1 ];
+    System.arraycopy( initialStates, 0, states, 0, wordCount );
+    for( String segment : folderSegments ) {
+      if( !advance( states, nextStates, segment ) ) {
+        return null;
+      }
+      long[] swap = states;
+      states = nextStates;
+      nextStates = swap;
+    }
+    return states;
+  }
+
+  private boolean advance( long[] states, long[] nextStates, String segment ) {
+    // states of '//' consume any segment and remain active
+    boolean active = false;
+    for( int i = 0; i < wordCount; i++ ) {
+      nextStates[ i ] = states[ i ] & anyNumberStates[ i ];
+      active |= nextStates[ i ] != 0;
+    }
+    for( int i = 0; i < segmentPatterns.length; i++ ) {
+      long[] patternStates = segmentStates[ i ];
+      if( intersects( states, patternStates ) && segmentPatterns[ i ].matches( segment ) ) {
+        shiftIntersection( states, patternStates, nextStates );
+        active = true;
+      }
+    }
+    close( nextStates );
+    return active;
+  }
+
+  private boolean matchesFile( long[] states, String fileName ) {
+    boolean included = false;
+    for( int i = 0; i < filePatterns.length && !included; i++ ) {
+      included = intersects( states, includeStates[ i ] ) && filePatterns[ i ].matches( fileName );
+    }
+    if( !included ) {
+      return false;
+    }
+    for( int i = 0; i < filePatterns.length; i++ ) {
+      if( intersects( states, excludeStates[ i ] ) && filePatterns[ i ].matches( fileName ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean intersects( long[] states, long[] mask ) {
+    for( int i = 0; i < wordCount; i++ ) {
+      if( ( states[ i ] & mask[ i ] ) != 0 ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /*
+   * Adds the states that follow the states in the intersection of the given sets to the target.
+   * The target may be the same array as the given states.
+   */
+  private void shiftIntersection( long[] states, long[] mask, long[] target ) {
+    long carry = 0;
+    for( int i = 0; i < wordCount; i++ ) {
+      long intersection = states[ i ] & mask[ i ];
+      target[ i ] |= ( intersection << 1 ) | carry;
+      carry = intersection >>> 63;
+    }
+  }
+
+  /*
+   * A '//' also matches zero segments, hence the state after it is active as well. Since a pattern
+   * cannot contain successive '//', a single pass is sufficient.
+   */
+  private void close( long[] states ) {
+    shiftIntersection( states, anyNumberStates, states );
+  }
+
+  /*
+   * A trailing '//' followed by '*' matches all files in all sub-folders.
+   */
+  private static boolean isSubtreePattern( PathSegmentPattern[] segments, int index ) {
+    return index == segments.length - 2 && segments[ index + 1 ] == PathSegmentPattern.ALL;
+  }
+
+  private long[] getStates( Map<String, long[]> map,
+                            Map<String, PathSegmentPattern> patternMap,
+                            PathSegmentPattern pattern )
+  {
+    String expression = pattern.toString();
+    long[] states = map.get( expression );
+    if( states == null ) {
+      states = new long[ wordCount ];
+      map.put( expression, states );
+      patternMap.put( expression, pattern );
+    }
+    return states;
+  }
+
+  private static PathSegmentPattern[] getPatterns( Map<String, long[]> map,
+                                                   Map<String, PathSegmentPattern> patternMap )
+  {
+    PathSegmentPattern[] patterns = new PathSegmentPattern[ map.size() ];
+    int index = 0;
+    for( String expression : map.keySet() ) {
+      patterns[ index++ ] = patternMap.get( expression );
+    }
+    return patterns;
+  }
+
+  private static void setBit( long[] states, int state ) {
+    states[ state >>> 6 ] |= 1L << ( state & 63 );
+  }
+
+}
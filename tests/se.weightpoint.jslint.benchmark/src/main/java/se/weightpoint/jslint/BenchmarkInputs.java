@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+
+/**
+ * Provides the JavaScript inputs used by the benchmarks.
+ */
+final class BenchmarkInputs {
+
+  static final String SMALL = "small";
+  static final String MEDIUM = "medium";
+  static final String LARGE = "large";
+
+  private BenchmarkInputs() {
+    // prevent instantiation
+  }
+
+  /**
+   * Returns the input of the given size. The small and medium inputs are generated, tab indented,
+   * and contain problems. The large input is the bundled JSLint library.
+   */
+  static String get( String size ) throws IOException {
+    if( SMALL.equals( size ) ) {
+      return createCode( 10 );
+    }
+    if( MEDIUM.equals( size ) ) {
+      return createCode( 500 );
+    }
+    if( LARGE.equals( size ) ) {
+      return readResource( "com/jslint/jslint-" + JSLint.getDefaultLibraryVersion() + ".js" );
+    }
+    throw new IllegalArgumentException( "Unknown input size: " + size );
+  }
+
+  private static String createCode( int functionCount ) {
+    StringBuilder builder = new StringBuilder();
+    for( int i = 0; i < functionCount; i++ ) {
+      builder.append( "function f" ).append( i ).append( "(a, b) {\n" );
+      builder.append( "\t\"use strict\";\n" );
+      builder.append( "\tvar x = a == null;\n" );
+      builder.append( "\tif (b) {\n" );
+      builder.append( "\t\treturn x + b;\n" );
+      builder.append( "\t}\n" );
+      builder.append( "\treturn x;\n" );
+      builder.append( "}\n" );
+    }
+    return builder.toString();
+  }
+
+  private static String readResource( String name ) throws IOException {
+    InputStream inputStream = BenchmarkInputs.class.getClassLoader().getResourceAsStream( name );
+    if( inputStream == null ) {
+      throw new IOException( "Resource not found: " + name );
+    }
+    Reader reader = new InputStreamReader( inputStream, "UTF-8" );
+    try {
+      StringBuilder builder = new StringBuilder();
+      char[] buffer = new char[ 8192 ];
+      int read = reader.read( buffer );
+      while( read != -1 ) {
+        builder.append( buffer, 0, read );
+        read = reader.read( buffer );
+      }
+      return builder.toString();
+    } finally {
+      reader.close();
+    }
+  }
+
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Runs the benchmarks and writes the results as JSON to <code>target/jmh-result.json</code>
+ * unless a different result file or format is given on the command line. Accepts all JMH command
+ * line options.
+ */
+public class BenchmarkMain {
+
+  private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+  public static void main( String[] args ) throws Exception {
+    CommandLineOptions commandLineOptions = new CommandLineOptions( args );
+    OptionsBuilder builder = new OptionsBuilder();
+    builder.parent( commandLineOptions );
+    if( !commandLineOptions.getResultFormat().hasValue() ) {
+      builder.resultFormat( ResultFormatType.JSON );
+    }
+    if( !commandLineOptions.getResult().hasValue() ) {
+      builder.result( DEFAULT_RESULT_FILE );
+    }
+    Options options = builder.build();
+    new Runner( options ).run();
+  }
+
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.weightpoint.jslint.json.JsonObject;
+
+
+/**
+ * Benchmarks for loading, configuring, and running JSLint. Only checking the benchmark inputs
+ * depends on the input size, therefore the size parameter is kept in a separate state.
+ * <p>
+ * Compiled libraries and the options created from a configuration are cached process-wide. The
+ * <em>warm</em> benchmarks measure a cache hit, the <em>cold</em> benchmarks use a library or a
+ * configuration that has not been seen before and therefore measure compiling the library and
+ * creating the options.
+ * </p>
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class JSLintBenchmark {
+
+  @State( Scope.Thread )
+  public static class Configured {
+
+    JSLint jslint;
+    JsonObject configuration;
+    int count;
+
+    @Setup
+    public void setUp() throws IOException {
+      configuration = new JsonObject().add( "undef", true ).add( "white", true );
+      jslint = new JSLint();
+      jslint.load();
+      jslint.configure( configuration );
+    }
+
+  }
+
+  @State( Scope.Thread )
+  public static class UnseenLibrary {
+
+    private String source;
+    private int count;
+    InputStream inputStream;
+
+    @Setup
+    public void setUp() throws IOException {
+      source = BenchmarkInputs.get( BenchmarkInputs.LARGE );
+    }
+
+    /*
+     * A trailing comment changes the checksum of the library but not its behavior.
+     */
+    @Setup( Level.Invocation )
+    public void createInputStream() throws IOException {
+      String unseenSource = source + "\n// " + count++ + "\n";
+      inputStream = new ByteArrayInputStream( unseenSource.getBytes( "UTF-8" ) );
+    }
+
+  }
+
+  @State( Scope.Thread )
+  public static class Input {
+
+    @Param( { BenchmarkInputs.SMALL, BenchmarkInputs.MEDIUM, BenchmarkInputs.LARGE } )
+    public String size;
+
+    Text text;
+
+    @Setup
+    public void setUp() throws IOException {
+      text = new Text( BenchmarkInputs.get( size ) );
+    }
+
+  }
+
+  @Benchmark
+  public JSLint loadWarm() throws IOException {
+    JSLint instance = new JSLint();
+    instance.load();
+    return instance;
+  }
+
+  @Benchmark
+  public JSLint loadCold( UnseenLibrary library ) throws IOException {
+    JSLint instance = new JSLint();
+    instance.load( library.inputStream );
+    return instance;
+  }
+
+  /**
+   * Options are created lazily on the next check, therefore this benchmark includes the check of
+   * a trivial snippet. Compare with {@link #checkTrivial(Configured, Blackhole)}.
+   */
+  @Benchmark
+  public boolean configureWarm( Configured state, Blackhole blackhole ) {
+    state.jslint.configure( new JsonObject( state.configuration ) );
+    return state.jslint.check( "var a;", new BlackholeHandler( blackhole ) );
+  }
+
+  /**
+   * Like {@link #configureWarm(Configured, Blackhole)}, but every configuration declares another
+   * global, so that the options are created anew.
+   */
+  @Benchmark
+  public boolean configureCold( Configured state, Blackhole blackhole ) {
+    JsonObject predef = new JsonObject().add( "global" + state.count++, true );
+    state.jslint.configure( new JsonObject( state.configuration ).add( "predef", predef ) );
+    return state.jslint.check( "var a;", new BlackholeHandler( blackhole ) );
+  }
+
+  @Benchmark
+  public boolean checkTrivial( Configured state, Blackhole blackhole ) {
+    return state.jslint.check( "var a;", new BlackholeHandler( blackhole ) );
+  }
+
+  @Benchmark
+  public boolean check( Configured state, Input input, Blackhole blackhole ) {
+    return state.jslint.check( input.text, new BlackholeHandler( blackhole ) );
+  }
+
+  private static final class BlackholeHandler implements ProblemHandler {
+
+    private final Blackhole blackhole;
+
+    BlackholeHandler( Blackhole blackhole ) {
+      this.blackhole = blackhole;
+    }
+
+    public void handleProblem( Problem problem ) {
+      blackhole.consume( problem );
+    }
+
+  }
+
+}
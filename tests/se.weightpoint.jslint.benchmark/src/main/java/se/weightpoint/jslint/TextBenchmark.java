@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.weightpoint.jslint.json.JsonObject;
+
+
+/**
+ * Benchmarks for reading text and for translating JSLint positions into character offsets.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class TextBenchmark {
+
+  @Param( { BenchmarkInputs.SMALL, BenchmarkInputs.MEDIUM, BenchmarkInputs.LARGE } )
+  public String size;
+
+  private String content;
+  private Text text;
+  private JSLint jslint;
+  private int[] lineLengths;
+  private File file;
+
+  @Setup
+  public void setUp() throws IOException {
+    content = BenchmarkInputs.get( size );
+    text = new Text( content );
+    jslint = new JSLint();
+    jslint.configure( new JsonObject().add( "indent", 4 ) );
+    String[] lines = content.split( "\n", -1 );
+    lineLengths = new int[ lines.length ];
+    for( int i = 0; i < lines.length; i++ ) {
+      lineLengths[ i ] = lines[ i ].length();
+    }
+    file = File.createTempFile( "jslint-benchmark", ".js" );
+    FileOutputStream outputStream = new FileOutputStream( file );
+    try {
+      outputStream.write( content.getBytes( "UTF-8" ) );
+    } finally {
+      outputStream.close();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Benchmark
+  public Text readText() throws IOException {
+    return new Text( new StringReader( content ) );
+  }
+
+  @Benchmark
+  public Text readFile() throws IOException {
+    return Text.read( file, Charset.forName( "UTF-8" ) );
+  }
+
+  /**
+   * Translates a position at the end of every line, the worst case for tab-indented lines.
+   */
+  @Benchmark
+  public int fixPosition() {
+    int sum = 0;
+    for( int i = 0; i < lineLengths.length; i++ ) {
+      sum += jslint.fixPosition( text, i + 1, lineLengths[ i ] * 4 + 1 );
+    }
+    return sum;
+  }
+
+}
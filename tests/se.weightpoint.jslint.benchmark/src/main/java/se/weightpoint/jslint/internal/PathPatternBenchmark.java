@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares folder matching of {@link PathPattern} with the former backtracking implementation,
+ * using a pattern with several <code>//</code> against deep paths that match only at the very
+ * end or not at all, the worst case for backtracking.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class PathPatternBenchmark {
+
+  @Param( { "8", "16", "32" } )
+  public int depth;
+
+  @Param( { "//a//b//c/", "//a//a//a//a//b/" } )
+  public String expression;
+
+  private PathPattern pattern;
+  private String[] segments;
+
+  @Setup
+  public void setUp() {
+    pattern = PathPattern.create( expression );
+    segments = new String[ depth ];
+    Arrays.fill( segments, "a" );
+  }
+
+  @Benchmark
+  public boolean matchFolder() {
+    return pattern.matchesFolder( segments );
+  }
+
+  @Benchmark
+  public boolean matchFolderRecursive() {
+    return matchRecursive( pattern.getSegmentPatterns(), 0, 0, segments );
+  }
+
+  /*
+   * The recursive implementation that PathPattern used before, for comparison.
+   */
+  private static boolean matchRecursive( PathSegmentPattern[] patterns,
+                                         int patternPos,
+                                         int inputPos,
+                                         String[] segments )
+  {
+    if( patternPos == patterns.length - 1 ) {
+      return inputPos == segments.length;
+    }
+    if( inputPos == segments.length ) {
+      if( patterns[ patternPos ] == PathSegmentPattern.ANY_NUMBER ) {
+        return matchRecursive( patterns, patternPos + 1, inputPos, segments );
+      }
+      return false;
+    }
+    if( patterns[ patternPos ] == PathSegmentPattern.ANY_NUMBER ) {
+      for( int nextInputPos = inputPos; nextInputPos <= segments.length; nextInputPos++ ) {
+        if( matchRecursive( patterns, patternPos + 1, nextInputPos, segments ) ) {
+          return true;
+        }
+      }
+      return false;
+    } else if( patterns[ patternPos ].matches( segments[ inputPos ] ) ) {
+      return matchRecursive( patterns, patternPos + 1, inputPos + 1, segments );
+    }
+    return false;
+  }
+
+}
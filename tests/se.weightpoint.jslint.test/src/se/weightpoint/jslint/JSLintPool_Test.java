@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import se.weightpoint.jslint.json.JsonObject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class JSLintPool_Test {
+
+  private JSLintPool pool;
+
+  @Before
+  public void setUp() throws IOException {
+    pool = new JSLintPool( 2 );
+    pool.load();
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void create_failsWithZeroSize() {
+    new JSLintPool( 0 );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void borrow_failsWhenNotLoaded() throws InterruptedException {
+    new JSLintPool( 1 ).borrow();
+  }
+
+  @Test( expected = NullPointerException.class )
+  public void configure_failsWithNull() {
+    pool.configure( null );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void getLibraryChecksum_failsWhenNotLoaded() {
+    new JSLintPool( 1 ).getLibraryChecksum();
+  }
+
+  @Test
+  public void getLibraryChecksum_differsForDifferentLibraries() throws IOException {
+    String checksum = pool.getLibraryChecksum();
+
+    String fakeJSLint = "JSLINT = function() { JSLINT.errors = []; return true; };";
+    pool.load( new ByteArrayInputStream( fakeJSLint.getBytes( "UTF-8" ) ) );
+
+    assertFalse( checksum.equals( pool.getLibraryChecksum() ) );
+  }
+
+  @Test
+  public void borrow_returnsLoadedInstance() throws InterruptedException {
+    JSLint jslint = pool.borrow();
+
+    assertFalse( jslint.check( "var x = 23 == null;", null ) );
+  }
+
+  @Test
+  public void borrow_returnsDifferentInstancesConcurrently() throws InterruptedException {
+    JSLint jslint1 = pool.borrow();
+    JSLint jslint2 = pool.borrow();
+
+    assertNotSame( jslint1, jslint2 );
+  }
+
+  @Test
+  public void borrow_reusesReleasedInstance() throws InterruptedException {
+    JSLint jslint = pool.borrow();
+    pool.release( jslint );
+
+    assertSame( jslint, pool.borrow() );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void borrow_withTimeout_failsWhenExhausted() throws InterruptedException {
+    pool.borrow();
+    pool.borrow();
+
+    pool.borrow( 0, TimeUnit.MILLISECONDS );
+  }
+
+  @Test
+  public void borrow_blocksUntilRelease() throws Exception {
+    final JSLint jslint = pool.borrow();
+    pool.borrow();
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep( 50 );
+        } catch( InterruptedException exception ) {
+          throw new RuntimeException( exception );
+        }
+        pool.release( jslint );
+      }
+    };
+    thread.start();
+
+    assertSame( jslint, pool.borrow() );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void release_failsWithForeignInstance() {
+    pool.release( new JSLint() );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void release_failsWhenReleasedTwice() throws InterruptedException {
+    JSLint jslint = pool.borrow();
+    pool.release( jslint );
+
+    pool.release( jslint );
+  }
+
+  @Test
+  public void release_resetsLimits() throws InterruptedException {
+    JSLint jslint = pool.borrow();
+    jslint.setTimeLimit( 1000 );
+    jslint.setMaxProblems( 1 );
+    pool.release( jslint );
+
+    JSLint nextJSLint = pool.borrow();
+
+    assertSame( jslint, nextJSLint );
+    assertEquals( 0, nextJSLint.getTimeLimit() );
+    assertEquals( 0, nextJSLint.getMaxProblems() );
+  }
+
+  @Test
+  public void release_maxProblemsDoesNotAffectNextBorrower() throws Exception {
+    pool = new JSLintPool( 1 );
+    pool.load();
+    JSLint jslint = pool.borrow();
+    jslint.setMaxProblems( 1 );
+    pool.release( jslint );
+
+    assertEquals( 3, countProblems( createCode( 3 ) ) );
+  }
+
+  @Test
+  public void release_configurationDoesNotAffectNextBorrower() throws InterruptedException {
+    JSLint jslint = pool.borrow();
+    jslint.configure( new JsonObject().add( "predef", new JsonObject().add( "foo", true ) ) );
+    pool.release( jslint );
+
+    JSLint nextJSLint = pool.borrow();
+
+    assertSame( jslint, nextJSLint );
+    assertFalse( nextJSLint.check( "foo = {};", null ) );
+  }
+
+  @Test
+  public void release_restoresConfigurationOfPool() throws InterruptedException {
+    pool.configure( new JsonObject().add( "predef", new JsonObject().add( "foo", true ) ) );
+    JSLint jslint = pool.borrow();
+    jslint.configure( new JsonObject() );
+    pool.release( jslint );
+
+    assertTrue( pool.borrow().check( "foo = {};", null ) );
+  }
+
+  @Test
+  public void configure_isAppliedToIdleInstances() throws InterruptedException {
+    JSLint jslint = pool.borrow();
+    pool.release( jslint );
+
+    pool.configure( new JsonObject().add( "predef", new JsonObject().add( "foo", true ) ) );
+
+    assertTrue( pool.borrow().check( "foo = {};", null ) );
+  }
+
+  @Test
+  public void load_isAppliedToIdleInstances() throws Exception {
+    JSLint jslint = pool.borrow();
+    pool.release( jslint );
+
+    String fakeJSLint = "JSLINT = function() { JSLINT.errors = []; return true; };";
+    pool.load( new ByteArrayInputStream( fakeJSLint.getBytes( "UTF-8" ) ) );
+
+    assertTrue( pool.borrow().check( "#", null ) );
+  }
+
+  @Test
+  public void concurrentChecks() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool( 4 );
+    List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+    for( int i = 0; i < 20; i++ ) {
+      final String code = createCode( i );
+      results.add( executor.submit( new Callable<Integer>() {
+        public Integer call() throws Exception {
+          return Integer.valueOf( countProblems( code ) );
+        }
+      } ) );
+    }
+    executor.shutdown();
+
+    for( int i = 0; i < 20; i++ ) {
+      assertEquals( i, results.get( i ).get().intValue() );
+    }
+  }
+
+  private int countProblems( String code ) throws InterruptedException {
+    final List<Problem> problems = new ArrayList<Problem>();
+    JSLint jslint = pool.borrow();
+    try {
+      jslint.check( code, new ProblemHandler() {
+        public void handleProblem( Problem problem ) {
+          problems.add( problem );
+        }
+      } );
+    } finally {
+      pool.release( jslint );
+    }
+    return problems.size();
+  }
+
+  private static String createCode( int problemCount ) {
+    StringBuilder builder = new StringBuilder();
+    for( int i = 0; i < problemCount; i++ ) {
+      builder.append( "var x" + i + " = 23 == null;\n" );
+    }
+    return builder.toString();
+  }
+
+}
@@ -26,6 +26,7 @@ import se.weightpoint.jslint.Problem;
 import se.weightpoint.jslint.ProblemHandler;
 import se.weightpoint.jslint.json.JsonObject;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 
@@ -148,6 +149,31 @@ public class JSLint_Test {
 
 
   
+  @Test
+  public void positionIsCorrectAfterMultipleTabs() {
+    assumeTrue( isVersion( "2012" ) );
+    jsLint.configure( new JsonObject().add( "white", true ) );
+    jsLint.check( "\t\tvar x\t= 23 == null;", handler );
+
+    assertEquals( "1.13", getPositionFromProblem( problems.size() - 1 ) );
+  }
+
+  @Test
+  public void positionIsCorrectAfterTabs() {
+    jsLint.configure( new JsonObject().add( "white", true ) );
+    jsLint.check( "\t\tvar x = 23 == null;", handler );
+
+    assertEquals( "1.13", getPositionFromProblem( problems.size() - 1 ) );
+  }
+
+  @Test
+  public void positionIsCorrectAfterTabsWithinLine() {
+    jsLint.configure( new JsonObject().add( "white", true ) );
+    jsLint.check( "\t\t\tvar x\t= 23\t== null;", handler );
+
+    assertEquals( "1.14", getPositionFromProblem( problems.size() - 1 ) );
+  }
+
   @Test
   public void toleratesWindowsLineBreaks() {
     jsLint.configure( new JsonObject().add( "white", false ) );
@@ -156,6 +182,87 @@ public class JSLint_Test {
     assertEquals( "3.11", getPositionFromProblem( 0 ) );
   }
 
+  @Test
+  public void check_withMonitor_succeeds() {
+    boolean result = jsLint.check( new Text( "var a = 23;" ), handler, createMonitor( false ) );
+
+    assertTrue( result );
+    assertFalse( jsLint.wasAborted() );
+  }
+
+  @Test
+  public void check_withCanceledMonitor_isAborted() {
+    boolean result = jsLint.check( new Text( createLongCode() ), handler, createMonitor( true ) );
+
+    assertFalse( result );
+    assertTrue( jsLint.wasAborted() );
+    assertEquals( "-1.-1:Check aborted: canceled", getAllProblems() );
+  }
+
+  @Test
+  public void check_exceedingTimeLimit_isAborted() {
+    jsLint.setTimeLimit( 1 );
+
+    boolean result = jsLint.check( createLongCode(), handler );
+
+    assertFalse( result );
+    assertTrue( jsLint.wasAborted() );
+    assertEquals( "-1.-1:Check aborted: time limit of 1 ms exceeded", getAllProblems() );
+  }
+
+  @Test
+  public void check_afterAbortedCheck_succeeds() {
+    jsLint.check( new Text( createLongCode() ), handler, createMonitor( true ) );
+
+    boolean result = jsLint.check( "var a = 23;", handler );
+
+    assertTrue( result );
+    assertFalse( jsLint.wasAborted() );
+  }
+
+  @Test
+  public void check_withMaxProblems_reportsOnlyMaxProblems() {
+    jsLint.setMaxProblems( 2 );
+
+    jsLint.check( createCodeWithProblems( 5 ), handler );
+
+    assertEquals( 2, problems.size() );
+    assertEquals( 1, problems.get( 0 ).getLine() );
+    assertEquals( 2, problems.get( 1 ).getLine() );
+  }
+
+  @Test
+  public void check_withMaxProblems_respectsLowerMaxerr() {
+    jsLint.configure( new JsonObject().add( "maxerr", 1 ) );
+    jsLint.setMaxProblems( 3 );
+
+    jsLint.check( createCodeWithProblems( 5 ), handler );
+
+    assertEquals( 1, problems.get( 0 ).getLine() );
+    assertTrue( problems.size() <= 2 );
+  }
+
+  @Test
+  public void check_afterResettingMaxProblems_reportsAllProblems() {
+    jsLint.setMaxProblems( 2 );
+    jsLint.check( createCodeWithProblems( 5 ), null );
+    jsLint.setMaxProblems( 0 );
+
+    jsLint.check( createCodeWithProblems( 5 ), handler );
+
+    assertEquals( 5, problems.size() );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void setMaxProblems_failsWithNegativeValue() {
+    jsLint.setMaxProblems( -1 );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void setTimeLimit_failsWithNegativeValue() {
+    jsLint.setTimeLimit( -1 );
+  }
+
   private void loadJsLint() throws IOException {
     ClassLoader classLoader = getClass().getClassLoader();
     InputStream stream = classLoader.getResourceAsStream( jsLintResource );
@@ -166,6 +273,30 @@ public class JSLint_Test {
     }
   }
 
+  private static String createLongCode() {
+    StringBuilder builder = new StringBuilder();
+    for( int i = 0; i < 5000; i++ ) {
+      builder.append( "var a" + i + " = " + i + ";\n" );
+    }
+    return builder.toString();
+  }
+
+  private static String createCodeWithProblems( int count ) {
+    StringBuilder builder = new StringBuilder();
+    for( int i = 0; i < count; i++ ) {
+      builder.append( "var a" + i + " = " + i + " == null;\n" );
+    }
+    return builder.toString();
+  }
+
+  private static CheckMonitor createMonitor( final boolean canceled ) {
+    return new CheckMonitor() {
+      public boolean isCanceled() {
+        return canceled;
+      }
+    };
+  }
+
   private boolean isVersion( String version ) {
     return jsLintResource.contains( version );
   }
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class ProblemCursor_Test {
+
+  private static final String CODE = "var x = 23 == null;\nvar y = 42 == null;\nvar z = 5 == null;";
+  private JSLint jslint;
+
+  @Before
+  public void setUp() throws IOException {
+    jslint = new JSLint();
+    jslint.load();
+  }
+
+  @Test
+  public void isEmptyBeforeCheck() {
+    assertFalse( jslint.getProblems().next() );
+  }
+
+  @Test
+  public void isEmptyForValidCode() {
+    jslint.check( "var a = 23;", null );
+
+    assertFalse( jslint.getProblems().next() );
+  }
+
+  @Test
+  public void isEmptyForEmptyCode() {
+    jslint.check( CODE, null );
+    jslint.check( "", null );
+
+    assertFalse( jslint.getProblems().next() );
+  }
+
+  @Test
+  public void iteratesOverAllProblems() {
+    jslint.check( CODE, null );
+
+    ProblemCursor cursor = jslint.getProblems();
+
+    assertTrue( cursor.next() );
+    assertEquals( 1, cursor.line() );
+    assertTrue( cursor.next() );
+    assertEquals( 2, cursor.line() );
+    assertTrue( cursor.next() );
+    assertEquals( 3, cursor.line() );
+    assertFalse( cursor.next() );
+  }
+
+  @Test
+  public void readsFieldsOfCurrentProblem() {
+    jslint.check( CODE, null );
+
+    ProblemCursor cursor = jslint.getProblems();
+    cursor.next();
+
+    assertEquals( 1, cursor.line() );
+    assertEquals( 11, cursor.character() );
+    assertTrue( cursor.reason().length() > 0 );
+    assertFalse( cursor.reason().endsWith( "." ) );
+  }
+
+  @Test
+  public void matchesProblemsReportedToHandler() {
+    final StringBuilder expected = new StringBuilder();
+    jslint.check( "function f() {\n\tvar x = 23 == null;\n\treturn x;\n}", new ProblemHandler() {
+      public void handleProblem( Problem problem ) {
+        expected.append( format( problem ) );
+      }
+    } );
+
+    StringBuilder actual = new StringBuilder();
+    ProblemCursor cursor = jslint.getProblems();
+    while( cursor.next() ) {
+      actual.append( format( cursor ) );
+    }
+
+    assertEquals( expected.toString(), actual.toString() );
+  }
+
+  @Test
+  public void stopsAfterMaxProblems() {
+    jslint.check( CODE, null );
+
+    ProblemCursor cursor = jslint.getProblems( 2 );
+
+    assertTrue( cursor.next() );
+    assertTrue( cursor.next() );
+    assertFalse( cursor.next() );
+  }
+
+  @Test
+  public void isEmptyWithZeroMaxProblems() {
+    jslint.check( CODE, null );
+
+    assertFalse( jslint.getProblems( 0 ).next() );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void failsWithNegativeMaxProblems() {
+    jslint.getProblems( -1 );
+  }
+
+  @Test
+  public void isFlyweight() {
+    jslint.check( CODE, null );
+
+    ProblemCursor cursor = jslint.getProblems();
+    cursor.next();
+    Problem first = cursor;
+    cursor.next();
+
+    assertSame( first, cursor );
+    assertEquals( 2, first.getLine() );
+  }
+
+  @Test
+  public void remainsValidAfterNextCheck() {
+    jslint.check( CODE, null );
+    ProblemCursor cursor = jslint.getProblems();
+
+    jslint.check( "var a = 23;", null );
+
+    assertTrue( cursor.next() );
+    assertEquals( 1, cursor.line() );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void failsBeforeNext() {
+    jslint.check( CODE, null );
+
+    jslint.getProblems().line();
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void failsAfterEnd() {
+    jslint.check( "var a = 23;", null );
+    ProblemCursor cursor = jslint.getProblems();
+    cursor.next();
+
+    cursor.reason();
+  }
+
+  private static String format( Problem problem ) {
+    return problem.getLine() + "." + problem.getCharacter() + ":" + problem.getMessage() + "\n";
+  }
+
+}
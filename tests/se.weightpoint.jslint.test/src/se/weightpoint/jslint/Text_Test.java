@@ -10,9 +10,13 @@
  ******************************************************************************/
 package se.weightpoint.jslint;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 
 import org.junit.Test;
 
@@ -21,6 +25,7 @@ import static org.hamcrest.CoreMatchers.endsWith;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 
 public class Text_Test {
@@ -134,6 +139,217 @@ public class Text_Test {
     assertEquals( 5001, textFile.getLineCount() );
   }
 
+  @Test( expected = NullPointerException.class )
+  public void readWithNullFileFails() throws IOException {
+    Text.read( null, Charset.forName( "UTF-8" ) );
+  }
+
+  @Test
+  public void readFile() throws IOException {
+    File file = createTmpFile( "foo\nbär\r\n\nbaz".getBytes( "UTF-8" ) );
+
+    Text text = Text.read( file, Charset.forName( "UTF-8" ) );
+
+    assertEquals( "foo\nbär\r\n\nbaz", text.getContent() );
+    assertEquals( "0, 4, 9, 10", getAllLineOffsets( text ) );
+    assertEquals( "4, 5, 1, 3", getAllLineLengths( text ) );
+  }
+
+  @Test
+  public void readEmptyFile() throws IOException {
+    File file = createTmpFile( new byte[ 0 ] );
+
+    Text text = Text.read( file, Charset.forName( "UTF-8" ) );
+
+    assertEquals( "", text.getContent() );
+    assertEquals( 1, text.getLineCount() );
+  }
+
+  @Test
+  public void readFile_withOtherCharset() throws IOException {
+    File file = createTmpFile( "föhn".getBytes( "ISO-8859-1" ) );
+
+    Text text = Text.read( file, Charset.forName( "ISO-8859-1" ) );
+
+    assertEquals( "föhn", text.getContent() );
+  }
+
+  @Test
+  public void readFile_replacesMalformedInput() throws IOException {
+    File file = createTmpFile( new byte[] { 'a', ( byte )0xff, 'b' } );
+
+    Text text = Text.read( file, Charset.forName( "UTF-8" ) );
+
+    assertEquals( "a\ufffdb", text.getContent() );
+  }
+
+  @Test
+  public void readLargeFile_equalsReaderResult() throws IOException {
+    StringBuilder builder = new StringBuilder();
+    for( int i = 0; i < 20000; i++ ) {
+      builder.append( "var ä" ).append( i ).append( " = " ).append( i ).append( ";\n" );
+    }
+    String content = builder.toString();
+    File file = createTmpFile( content.getBytes( "UTF-8" ) );
+
+    Text text = Text.read( file, Charset.forName( "UTF-8" ) );
+
+    Text expected = new Text( new StringReader( content ) );
+    assertEquals( content, text.getContent() );
+    assertEquals( expected.getLineCount(), text.getLineCount() );
+    assertEquals( getAllLineOffsets( expected ), getAllLineOffsets( text ) );
+  }
+
+  @Test
+  public void readLargeFile_withCharacterAcrossChunks() throws IOException {
+    // the two bytes of the last character are read in different chunks
+    String content = createLongLine( 64 * 1024 - 1 ) + "\u00e4\nb";
+    File file = createTmpFile( content.getBytes( "UTF-8" ) );
+
+    Text text = Text.read( file, Charset.forName( "UTF-8" ) );
+
+    assertEquals( content, text.getContent() );
+    assertEquals( 2, text.getLineCount() );
+  }
+
+  @Test
+  public void readLargeFile_releasesFile() throws IOException {
+    File file = createTmpFile( createLongLine( 200000 ).getBytes( "UTF-8" ) );
+
+    Text.read( file, Charset.forName( "UTF-8" ) );
+
+    assertTrue( file.delete() );
+  }
+
+  @Test
+  public void manyLines() {
+    StringBuilder builder = new StringBuilder();
+    for( int i = 0; i < 5000; i++ ) {
+      builder.append( "line " ).append( i ).append( '\n' );
+    }
+    String content = builder.toString();
+
+    Text text = new Text( content );
+
+    assertEquals( 5001, text.getLineCount() );
+    int offset = 0;
+    for( int i = 0; i < 5000; i++ ) {
+      int length = ( "line " + i + "\n" ).length();
+      assertEquals( offset, text.getLineOffset( i ) );
+      assertEquals( length, text.getLineLength( i ) );
+      offset += length;
+    }
+    assertEquals( content.length(), text.getLineOffset( 5000 ) );
+    assertEquals( 0, text.getLineLength( 5000 ) );
+  }
+
+  @Test
+  public void manyLines_withVeryLongLines() {
+    StringBuilder builder = new StringBuilder();
+    for( int i = 0; i < 2000; i++ ) {
+      builder.append( i % 100 == 0 ? createLongLine( 70000 ) : "x" ).append( '\n' );
+    }
+
+    Text text = new Text( builder.toString() );
+
+    assertEquals( 2001, text.getLineCount() );
+    assertEquals( 70001, text.getLineLength( 0 ) );
+    assertEquals( 70001, text.getLineOffset( 1 ) );
+    assertEquals( 70001 + 99 * 2, text.getLineOffset( 100 ) );
+    assertEquals( 2 * 70001 + 99 * 2, text.getLineOffset( 101 ) );
+  }
+
+  @Test( expected = IndexOutOfBoundsException.class )
+  public void manyLines_getLineOffsetAfterLastLineFails() {
+    StringBuilder builder = new StringBuilder();
+    for( int i = 0; i < 2000; i++ ) {
+      builder.append( '\n' );
+    }
+
+    new Text( builder.toString() ).getLineOffset( 2001 );
+  }
+
+  @Test
+  public void getCharacterIndex_withoutTabs() {
+    Text text = new Text( "foo\nvar x = 23;" );
+
+    assertEquals( 4, text.getCharacterIndex( 1, 4, 4 ) );
+  }
+
+  @Test
+  public void getCharacterIndex_atStartOfLine() {
+    Text text = new Text( "\tfoo" );
+
+    assertEquals( 0, text.getCharacterIndex( 0, 0, 4 ) );
+  }
+
+  @Test
+  public void getCharacterIndex_afterTabs() {
+    Text text = new Text( "foo\n\t\tvar x = 23;" );
+
+    assertEquals( 2, text.getCharacterIndex( 1, 8, 4 ) );
+    assertEquals( 6, text.getCharacterIndex( 1, 12, 4 ) );
+  }
+
+  @Test
+  public void getCharacterIndex_withTabWidthOne() {
+    Text text = new Text( "foo\n\t\tvar x = 23;" );
+
+    assertEquals( 8, text.getCharacterIndex( 1, 8, 1 ) );
+    assertEquals( 12, text.getCharacterIndex( 1, 100, 1 ) );
+  }
+
+  @Test
+  public void getCharacterIndex_withinTab() {
+    Text text = new Text( "a\tb" );
+
+    assertEquals( 2, text.getCharacterIndex( 0, 3, 4 ) );
+  }
+
+  @Test
+  public void getCharacterIndex_ignoresTabsInPreviousLines() {
+    Text text = new Text( "\t\t\t\nvar x = 23;" );
+
+    assertEquals( 4, text.getCharacterIndex( 1, 4, 4 ) );
+  }
+
+  @Test
+  public void getCharacterIndex_isLimitedToContent() {
+    Text text = new Text( "var x;" );
+
+    assertEquals( 5, text.getCharacterIndex( 0, 100, 4 ) );
+  }
+
+  @Test
+  public void getCharacterIndex_matchesExpandedTabs() {
+    String line = "\tif (a\t&& b) {\t\t x = 1;\t}";
+    Text text = new Text( "// comment\n" + line );
+    StringBuilder expanded = new StringBuilder();
+    for( int i = 0; i < line.length(); i++ ) {
+      int column = expanded.length();
+      assertEquals( i, text.getCharacterIndex( 1, column, 4 ) );
+      expanded.append( line.charAt( i ) == '\t' ? "    " : line.substring( i, i + 1 ) );
+    }
+  }
+
+  private static String createLongLine( int length ) {
+    char[] chars = new char[ length ];
+    Arrays.fill( chars, 'a' );
+    return new String( chars );
+  }
+
+  private static File createTmpFile( byte[] content ) throws IOException {
+    File file = File.createTempFile( "jslint-test", ".tmp" );
+    file.deleteOnExit();
+    FileOutputStream outputStream = new FileOutputStream( file );
+    try {
+      outputStream.write( content );
+    } finally {
+      outputStream.close();
+    }
+    return file;
+  }
+
   private static String getAllLineOffsets( Text textFile ) {
     StringBuilder result = new StringBuilder();
     int line = 0;
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.weightpoint.jslint.internal.FileWalker.FileHandler;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+
+public class FileWalker_Test {
+
+  private File root;
+  private List<String> found;
+  private FileHandler handler;
+
+  @Before
+  public void setUp() throws IOException {
+    root = File.createTempFile( "jslint-test", ".dir" );
+    root.delete();
+    root.mkdir();
+    found = new ArrayList<String>();
+    handler = new FileHandler() {
+      public boolean handleFile( File file ) {
+        String path = file.getAbsolutePath().substring( root.getAbsolutePath().length() );
+        found.add( path.replace( File.separatorChar, '/' ) );
+        return true;
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    delete( root );
+  }
+
+  @Test
+  public void walk_reportsMatchingFilesInOrder() throws IOException {
+    createFile( "b.js" );
+    createFile( "a.js" );
+    createFile( "a.txt" );
+    createFile( "sub/c.js" );
+
+    createWalker( list( "//*.js" ), list() ).walk( root, handler );
+
+    assertEquals( "[/a.js, /b.js, /sub/c.js]", found.toString() );
+  }
+
+  @Test
+  public void walk_appliesIncludePatternToRelativePath() throws IOException {
+    createFile( "a.js" );
+    createFile( "src/b.js" );
+    createFile( "src/lib/c.js" );
+
+    createWalker( list( "src/*.js" ), list() ).walk( root, handler );
+
+    assertEquals( "[/src/b.js]", found.toString() );
+  }
+
+  @Test
+  public void walk_appliesExcludePatterns() throws IOException {
+    createFile( "a.js" );
+    createFile( "a.min.js" );
+    createFile( "lib/b.js" );
+
+    createWalker( list( "//*.js" ), list( "//*.min.js", "lib/" ) ).walk( root, handler );
+
+    assertEquals( "[/a.js]", found.toString() );
+  }
+
+  @Test
+  public void walk_stopsWhenHandlerReturnsFalse() throws IOException {
+    createFile( "a.js" );
+    createFile( "sub/b.js" );
+    createFile( "sub/c.js" );
+    createFile( "z.js" );
+    FileHandler stoppingHandler = new FileHandler() {
+      public boolean handleFile( File file ) throws IOException {
+        handler.handleFile( file );
+        return !file.getName().equals( "b.js" );
+      }
+    };
+
+    boolean completed = createWalker( list( "//*.js" ), list() ).walk( root, stoppingHandler );
+
+    assertFalse( completed );
+    assertEquals( "[/a.js, /sub/b.js]", found.toString() );
+  }
+
+  @Test
+  public void walk_emptyDirectory() throws IOException {
+    createWalker( list( "//*.js" ), list() ).walk( root, handler );
+
+    assertEquals( 0, found.size() );
+  }
+
+  private static FileWalker createWalker( List<String> includes, List<String> excludes ) {
+    return new FileWalker( createPatterns( includes ), createPatterns( excludes ) );
+  }
+
+  private static List<PathPattern> createPatterns( List<String> expressions ) {
+    List<PathPattern> patterns = new ArrayList<PathPattern>();
+    for( String expression : expressions ) {
+      patterns.add( PathPattern.create( expression ) );
+    }
+    return patterns;
+  }
+
+  private void createFile( String path ) throws IOException {
+    File file = new File( root, path );
+    file.getParentFile().mkdirs();
+    file.createNewFile();
+  }
+
+  private static void delete( File file ) {
+    File[] children = file.listFiles();
+    if( children != null ) {
+      for( File child : children ) {
+        delete( child );
+      }
+    }
+    file.delete();
+  }
+
+  private static List<String> list( String... strings ) {
+    List<String> list = new ArrayList<String>();
+    for( String string : strings ) {
+      list.add( string );
+    }
+    return list;
+  }
+
+}
@@ -0,0 +1,369 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.weightpoint.jslint.JSLintPool;
+import se.weightpoint.jslint.json.JsonArray;
+import se.weightpoint.jslint.json.JsonObject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class JSLintDaemon_Test {
+
+  private JSLintDaemon daemon;
+
+  @Before
+  public void setUp() throws IOException {
+    JSLintPool pool = new JSLintPool( 2 );
+    pool.load();
+    pool.configure( new JsonObject() );
+    daemon = new JSLintDaemon( pool, Charset.forName( "UTF-8" ) );
+  }
+
+  @After
+  public void tearDown() {
+    daemon.shutdown();
+  }
+
+  @Test
+  public void handleRequest_withValidContent() {
+    String response = daemon.handleRequest( withToken( "{\"content\": \"var a = 23;\"}" ) );
+
+    assertEquals( "{\"problems\":[]}", response );
+  }
+
+  @Test
+  public void handleRequest_withInvalidContent() {
+    String request = withToken( "{\"content\": \"var a = 23 == null;\"}" );
+
+    String response = daemon.handleRequest( request );
+
+    JsonArray problems = JsonObject.readFrom( response ).get( "problems" ).asArray();
+    assertEquals( 1, problems.size() );
+    JsonObject problem = problems.get( 0 ).asObject();
+    assertEquals( 1, problem.get( "line" ).asInt() );
+    assertEquals( 11, problem.get( "character" ).asInt() );
+    assertEquals( "Expected '===' and instead saw '=='", problem.get( "message" ).asString() );
+  }
+
+  @Test
+  public void handleRequest_withOptions() {
+    String request = "{\"content\": \"foo = {};\", \"options\": {\"predef\": {\"foo\": true}}}";
+
+    String response = daemon.handleRequest( withToken( request ) );
+
+    assertEquals( "{\"problems\":[]}", response );
+  }
+
+  @Test
+  public void handleRequest_withPath() throws IOException {
+    File file = File.createTempFile( "jslint-test", ".js" );
+    file.deleteOnExit();
+    FileOutputStream outputStream = new FileOutputStream( file );
+    outputStream.write( "var a = 23 == null;".getBytes( "UTF-8" ) );
+    outputStream.close();
+    JsonObject request = new JsonObject().add( "token", daemon.getToken() )
+                                          .add( "path", file.getAbsolutePath() );
+
+    String response = daemon.handleRequest( request.toString() );
+
+    assertEquals( 1, JsonObject.readFrom( response ).get( "problems" ).asArray().size() );
+  }
+
+  @Test
+  public void handleRequest_withMissingFile() {
+    String response = daemon.handleRequest( withToken( "{\"path\": \"/nowhere/missing.js\"}" ) );
+
+    assertTrue( JsonObject.readFrom( response ).get( "error" ).isString() );
+  }
+
+  @Test
+  public void handleRequest_withoutContent() {
+    String response = daemon.handleRequest( withToken( "{}" ) );
+
+    assertEquals( "{\"error\":\"Request must contain content or path\"}", response );
+  }
+
+  @Test
+  public void handleRequest_withInvalidJson() {
+    String response = daemon.handleRequest( "{content" );
+
+    assertTrue( JsonObject.readFrom( response ).get( "error" ).isString() );
+  }
+
+  @Test
+  public void handleRequest_withUnknownCommand() {
+    String response = daemon.handleRequest( withToken( "{\"command\": \"foo\"}" ) );
+
+    assertEquals( "{\"error\":\"Unknown command: foo\"}", response );
+  }
+
+  @Test
+  public void handleRequest_withoutToken() {
+    String response = daemon.handleRequest( "{\"command\": \"shutdown\"}" );
+
+    assertEquals( "{\"error\":\"Invalid or missing token\"}", response );
+  }
+
+  @Test
+  public void handleRequest_withWrongToken() {
+    String response = daemon.handleRequest( "{\"token\": \"foo\", \"content\": \"var a;\"}" );
+
+    assertEquals( "{\"error\":\"Invalid or missing token\"}", response );
+  }
+
+  @Test
+  public void handleRequest_authenticate() {
+    String response = daemon.handleRequest( withToken( "{\"command\": \"authenticate\"}" ) );
+
+    assertEquals( "{\"authenticated\":true}", response );
+  }
+
+  @Test
+  public void handleRequest_abortsCheckAfterTimeLimit() {
+    daemon.setTimeLimit( 1 );
+    StringBuilder builder = new StringBuilder();
+    for( int i = 0; i < 5000; i++ ) {
+      builder.append( "var a" ).append( i ).append( " = " ).append( i ).append( ";\n" );
+    }
+    JsonObject request = new JsonObject().add( "token", daemon.getToken() )
+                                         .add( "content", builder.toString() );
+
+    String response = daemon.handleRequest( request.toString() );
+
+    JsonArray problems = JsonObject.readFrom( response ).get( "problems" ).asArray();
+    assertEquals( 1, problems.size() );
+    String message = problems.get( 0 ).asObject().get( "message" ).asString();
+    assertTrue( message.startsWith( "Check aborted: time limit" ) );
+  }
+
+  @Test
+  public void createToken_isRandom() {
+    JSLintDaemon otherDaemon = new JSLintDaemon( new JSLintPool( 1 ), Charset.forName( "UTF-8" ) );
+
+    assertEquals( 32, daemon.getToken().length() );
+    assertFalse( daemon.getToken().equals( otherDaemon.getToken() ) );
+  }
+
+  @Test
+  public void writeTokenFile() throws IOException {
+    File file = File.createTempFile( "jslint-test", ".token" );
+    file.deleteOnExit();
+
+    daemon.writeTokenFile( file );
+
+    BufferedReader reader = new BufferedReader( new InputStreamReader( new FileInputStream( file ),
+                                                                       "UTF-8" ) );
+    try {
+      assertEquals( daemon.getToken(), reader.readLine() );
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void shutdown_deletesTokenFile() throws IOException {
+    File file = File.createTempFile( "jslint-test", ".token" );
+    file.deleteOnExit();
+    daemon.writeTokenFile( file );
+
+    daemon.shutdown();
+
+    assertFalse( file.exists() );
+  }
+
+  @Test( timeout = 10000 )
+  public void serve_closesConnectionAfterTooLongRequest() throws Exception {
+    daemon.setMaxRequestLength( 100 );
+    int port = daemon.bind( 0 );
+    Thread thread = startServer();
+
+    Socket socket = new Socket( InetAddress.getByName( null ), port );
+    Writer writer = new OutputStreamWriter( socket.getOutputStream(), "UTF-8" );
+    BufferedReader reader = new BufferedReader( new InputStreamReader( socket.getInputStream(),
+                                                                       "UTF-8" ) );
+    writer.write( withToken( "{\"command\": \"authenticate\"}" ) + "\n" );
+    JsonObject request = new JsonObject().add( "token", daemon.getToken() )
+                                         .add( "content", createString( 200 ) );
+    writer.write( request.toString() + "\n" );
+    writer.flush();
+    reader.readLine();
+    String response = reader.readLine();
+    String next = reader.readLine();
+    socket.close();
+    daemon.shutdown();
+    thread.join();
+
+    assertEquals( "{\"error\":\"Request exceeds 100 characters\"}", response );
+    assertNull( next );
+  }
+
+  @Test( timeout = 10000 )
+  public void serve_closesConnectionAfterTooLongUnauthenticatedRequest() throws Exception {
+    int port = daemon.bind( 0 );
+    Thread thread = startServer();
+
+    Socket socket = new Socket( InetAddress.getByName( null ), port );
+    Writer writer = new OutputStreamWriter( socket.getOutputStream(), "UTF-8" );
+    BufferedReader reader = new BufferedReader( new InputStreamReader( socket.getInputStream(),
+                                                                       "UTF-8" ) );
+    JsonObject request = new JsonObject().add( "token", daemon.getToken() )
+                                         .add( "content", createString( 2000 ) );
+    writer.write( request.toString() + "\n" );
+    writer.flush();
+    String response = reader.readLine();
+    String next = reader.readLine();
+    socket.close();
+    daemon.shutdown();
+    thread.join();
+
+    assertEquals( "{\"error\":\"Unauthenticated request exceeds 1024 characters\"}", response );
+    assertNull( next );
+  }
+
+  @Test( timeout = 10000 )
+  public void serve_acceptsLongRequestAfterAuthentication() throws Exception {
+    int port = daemon.bind( 0 );
+    Thread thread = startServer();
+
+    Socket socket = new Socket( InetAddress.getByName( null ), port );
+    Writer writer = new OutputStreamWriter( socket.getOutputStream(), "UTF-8" );
+    BufferedReader reader = new BufferedReader( new InputStreamReader( socket.getInputStream(),
+                                                                       "UTF-8" ) );
+    writer.write( withToken( "{\"command\": \"authenticate\"}" ) + "\n" );
+    JsonObject request = new JsonObject().add( "token", daemon.getToken() )
+                                         .add( "content", "var a;" + createString( 2000 ) );
+    writer.write( request.toString() + "\n" );
+    writer.flush();
+    String response1 = reader.readLine();
+    String response2 = reader.readLine();
+    socket.close();
+    daemon.shutdown();
+    thread.join();
+
+    assertEquals( "{\"authenticated\":true}", response1 );
+    assertTrue( response2.startsWith( "{\"problems\":[" ) );
+  }
+
+  @Test( timeout = 10000 )
+  public void serve_rejectsConnectionsOverLimit() throws Exception {
+    daemon.setMaxConnections( 1 );
+    int port = daemon.bind( 0 );
+    Thread thread = startServer();
+
+    Socket socket1 = new Socket( InetAddress.getByName( null ), port );
+    Writer writer1 = new OutputStreamWriter( socket1.getOutputStream(), "UTF-8" );
+    BufferedReader reader1 = new BufferedReader( new InputStreamReader( socket1.getInputStream(),
+                                                                        "UTF-8" ) );
+    writer1.write( withToken( "{\"command\": \"authenticate\"}" ) + "\n" );
+    writer1.flush();
+    reader1.readLine();
+    Socket socket2 = new Socket( InetAddress.getByName( null ), port );
+    BufferedReader reader2 = new BufferedReader( new InputStreamReader( socket2.getInputStream(),
+                                                                        "UTF-8" ) );
+    String response = reader2.readLine();
+    String next = reader2.readLine();
+    socket2.close();
+    socket1.close();
+    daemon.shutdown();
+    thread.join();
+
+    assertEquals( "{\"error\":\"Too many connections\"}", response );
+    assertNull( next );
+  }
+
+  @Test( timeout = 10000 )
+  public void serve_closesIdleConnection() throws Exception {
+    daemon.setReadTimeout( 100 );
+    int port = daemon.bind( 0 );
+    Thread thread = startServer();
+
+    Socket socket = new Socket( InetAddress.getByName( null ), port );
+    BufferedReader reader = new BufferedReader( new InputStreamReader( socket.getInputStream(),
+                                                                       "UTF-8" ) );
+    String response = reader.readLine();
+    socket.close();
+    daemon.shutdown();
+    thread.join();
+
+    assertNull( response );
+  }
+
+  @Test( timeout = 10000 )
+  public void serve_answersRequestsUntilShutdown() throws Exception {
+    int port = daemon.bind( 0 );
+    Thread thread = startServer();
+
+    Socket socket = new Socket( InetAddress.getByName( null ), port );
+    Writer writer = new OutputStreamWriter( socket.getOutputStream(), "UTF-8" );
+    BufferedReader reader = new BufferedReader( new InputStreamReader( socket.getInputStream(),
+                                                                       "UTF-8" ) );
+    writer.write( withToken( "{\"content\": \"var a = 23;\"}" ) + "\n" );
+    writer.flush();
+    String response1 = reader.readLine();
+    writer.write( withToken( "{\"command\": \"shutdown\"}" ) + "\n" );
+    writer.flush();
+    String response2 = reader.readLine();
+    socket.close();
+    thread.join();
+
+    assertEquals( "{\"problems\":[]}", response1 );
+    assertEquals( "{\"shutdown\":true}", response2 );
+  }
+
+  private Thread startServer() {
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          daemon.serve();
+        } catch( IOException exception ) {
+          throw new RuntimeException( exception );
+        }
+      }
+    };
+    thread.start();
+    return thread;
+  }
+
+  private String withToken( String request ) {
+    String members = request.substring( 1 ).trim();
+    String separator = members.startsWith( "}" ) ? "" : ", ";
+    return "{\"token\": \"" + daemon.getToken() + "\"" + separator + members;
+  }
+
+  private static String createString( int length ) {
+    char[] chars = new char[ length ];
+    Arrays.fill( chars, 'a' );
+    return new String( chars );
+  }
+
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.EvaluatorException;
+import org.mozilla.javascript.Scriptable;
+
+import se.weightpoint.jslint.json.JsonObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class JSLintLibrary_Test {
+
+  private static final String FAKE_JSLINT = "var JSLINT = function() { return true; };"
+                                          + "if( typeof String.prototype.foo !== 'function' ) {"
+                                          + "  String.prototype.foo = function() { return 23; };"
+                                          + "}";
+  private Context context;
+  private JSLintLibrary library;
+
+  @Before
+  public void setUp() {
+    context = Context.enter();
+    library = LibraryCache.getLibrary( FAKE_JSLINT );
+  }
+
+  @After
+  public void tearDown() {
+    Context.exit();
+    LibraryCache.clear();
+  }
+
+  @Test
+  public void createScope_containsLibrary() {
+    Scriptable scope = library.createScope( context );
+
+    assertTrue( scope.has( "JSLINT", scope ) );
+    assertTrue( scope.has( "console", scope ) );
+  }
+
+  @Test
+  public void createScope_createsSeparateLibraryInstances() {
+    Scriptable scope1 = library.createScope( context );
+    Scriptable scope2 = library.createScope( context );
+
+    assertNotSame( scope1.get( "JSLINT", scope1 ), scope2.get( "JSLINT", scope2 ) );
+  }
+
+  @Test
+  public void createScope_sharesStandardObjects() {
+    Scriptable scope1 = library.createScope( context );
+    Scriptable scope2 = library.createScope( context );
+
+    assertSame( scope1.getPrototype(), scope2.getPrototype() );
+    assertSame( scope1.get( "String", scope1 ), scope2.get( "String", scope2 ) );
+  }
+
+  @Test
+  public void createScope_keepsLibraryExtensionsOfStandardObjects() {
+    Scriptable scope = library.createScope( context );
+
+    Object result = context.evaluateString( scope, "'x'.foo()", "test", 1, null );
+
+    assertEquals( 23, ( ( Number )result ).intValue() );
+  }
+
+  @Test( expected = EvaluatorException.class )
+  public void createScope_sealsStandardObjects() {
+    Scriptable scope = library.createScope( context );
+
+    context.evaluateString( scope, "String.prototype.bar = 1;", "test", 1, null );
+  }
+
+  @Test
+  public void getOptions_containsConfiguration() {
+    Scriptable options = library.getOptions( context, new JsonObject().add( "foo", true ) );
+
+    assertEquals( Boolean.TRUE, options.get( "foo", options ) );
+  }
+
+  @Test
+  public void getOptions_returnsSameObjectForEqualConfigurations() {
+    JsonObject configuration1 = new JsonObject().add( "foo", true ).add( "bar", 23 );
+    JsonObject configuration2 = new JsonObject().add( "bar", 23 ).add( "foo", true );
+
+    Scriptable options1 = library.getOptions( context, configuration1 );
+    Scriptable options2 = library.getOptions( context, configuration2 );
+
+    assertSame( options1, options2 );
+  }
+
+  @Test
+  public void getOptions_returnsDifferentObjectsForDifferentConfigurations() {
+    Scriptable options1 = library.getOptions( context, new JsonObject().add( "foo", true ) );
+    Scriptable options2 = library.getOptions( context, new JsonObject().add( "foo", false ) );
+
+    assertNotSame( options1, options2 );
+  }
+
+}
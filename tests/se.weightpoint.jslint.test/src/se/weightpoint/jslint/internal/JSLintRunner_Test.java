@@ -27,7 +27,9 @@ import se.weightpoint.jslint.internal.JSLintRunner;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 
 public class JSLintRunner_Test {
@@ -171,6 +173,224 @@ public class JSLintRunner_Test {
     assertThat( getSysout(), startsWith( expected ) );
   }
 
+  @Test
+  public void threads_invalidNumber() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File file = createTmpFile( "var a = 23;", "UTF-8" );
+
+    runner.run( "--threads", "0", file.getAbsolutePath() );
+
+    assertThat( getSysout(), startsWith( "Invalid number of threads: 0" ) );
+  }
+
+  @Test
+  public void threads_keepsInputOrder() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    String[] args = new String[ 22 ];
+    args[ 0 ] = "--threads";
+    args[ 1 ] = "4";
+    for( int i = 2; i < args.length; i++ ) {
+      args[ i ] = createTmpFile( "var a == 23;", "UTF-8" ).getAbsolutePath();
+    }
+
+    runner.run( args );
+
+    String sysout = getSysout();
+    int lastIndex = -1;
+    for( int i = 2; i < args.length; i++ ) {
+      int index = sysout.indexOf( "Problem in file " + args[ i ] + " " );
+      assertTrue( index > lastIndex );
+      lastIndex = sysout.lastIndexOf( "Problem in file " + args[ i ] + " " );
+    }
+  }
+
+  @Test
+  public void threads_singleThread() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File file = createTmpFile( "var a == 23;", "UTF-8" );
+
+    runner.run( "--threads", "1", file.getAbsolutePath() );
+
+    String fileName = file.getAbsolutePath();
+    assertThat( getSysout(), startsWith( "Problem in file " + fileName + " at line 1: " ) );
+  }
+
+  @Test
+  public void directory_checksJsFiles() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File directory = createTmpDirectory();
+    File jsFile = createFile( directory, "sub/test.js", "var a == 23;" );
+    File txtFile = createFile( directory, "test.txt", "var a == 23;" );
+
+    runner.run( directory.getAbsolutePath() );
+
+    assertThat( getSysout(), containsString( "Problem in file " + jsFile.getAbsolutePath() ) );
+    assertFalse( getSysout().contains( txtFile.getAbsolutePath() ) );
+  }
+
+  @Test
+  public void directory_withIncludeAndExclude() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File directory = createTmpDirectory();
+    File included = createFile( directory, "src/test.js", "var a == 23;" );
+    File excluded = createFile( directory, "src/lib/test.js", "var a == 23;" );
+    File notIncluded = createFile( directory, "test.js", "var a == 23;" );
+
+    runner.run( "--include", "src//*.js",
+                "--exclude", "src/lib/",
+                directory.getAbsolutePath() );
+
+    assertThat( getSysout(), containsString( "Problem in file " + included.getAbsolutePath() ) );
+    assertFalse( getSysout().contains( excluded.getAbsolutePath() ) );
+    assertFalse( getSysout().contains( notIncluded.getAbsolutePath() ) );
+  }
+
+  @Test
+  public void invalidIncludePattern() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File directory = createTmpDirectory();
+
+    runner.run( "--include", "src///*.js", directory.getAbsolutePath() );
+
+    assertThat( getSysout(), startsWith( "Invalid path pattern: src///*.js" ) );
+  }
+
+  @Test
+  public void maxProblems_limitsProblemsPerFile() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    String code = "var a = 1 == null;\nvar b = 2 == null;\nvar c = 3 == null;";
+    File file = createTmpFile( code, "UTF-8" );
+
+    runner.run( "--max-problems", "2", file.getAbsolutePath() );
+
+    assertEquals( 2, countOccurrences( getSysout(), "Problem in file" ) );
+  }
+
+  @Test
+  public void maxProblems_invalidNumber() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File file = createTmpFile( "var a = 23;", "UTF-8" );
+
+    runner.run( "--max-problems", "0", file.getAbsolutePath() );
+
+    assertThat( getSysout(), startsWith( "Invalid number of problems: 0" ) );
+  }
+
+  @Test
+  public void failFast_stopsAfterFirstFileWithProblems() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File validFile = createTmpFile( "var a = 23;", "UTF-8" );
+    File firstFile = createTmpFile( "var a == 23;", "UTF-8" );
+    File secondFile = createTmpFile( "var a == 23;", "UTF-8" );
+
+    runner.run( "--fail-fast",
+                "--threads", "2",
+                validFile.getAbsolutePath(),
+                firstFile.getAbsolutePath(),
+                secondFile.getAbsolutePath() );
+
+    assertThat( getSysout(), containsString( "Problem in file " + firstFile.getAbsolutePath() ) );
+    assertFalse( getSysout().contains( secondFile.getAbsolutePath() ) );
+  }
+
+  @Test
+  public void failFast_inDirectory() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File directory = createTmpDirectory();
+    File firstFile = createFile( directory, "a.js", "var a == 23;" );
+    File secondFile = createFile( directory, "b.js", "var a == 23;" );
+
+    runner.run( "--fail-fast", directory.getAbsolutePath() );
+
+    assertThat( getSysout(), containsString( "Problem in file " + firstFile.getAbsolutePath() ) );
+    assertFalse( getSysout().contains( secondFile.getAbsolutePath() ) );
+  }
+
+  @Test( timeout = 10000 )
+  public void failFast_abortsRunningChecks() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    // checking a file that contains 'loop' never ends unless the check is aborted
+    String fakeJsLint = "JSLINT = function( code ) { while( code.indexOf( 'loop' ) >= 0 ) {}"
+                      + " return false; };"
+                      + "JSLINT.errors = [ { line: 1, character: 2, reason: 'test' } ]";
+    File fakeJSLintFile = createTmpFile( fakeJsLint, "UTF-8" );
+    File firstFile = createTmpFile( "var a == 23;", "UTF-8" );
+    File secondFile = createTmpFile( "loop", "UTF-8" );
+
+    runner.run( "--fail-fast",
+                "--threads", "2",
+                "--custom", fakeJSLintFile.getAbsolutePath(),
+                firstFile.getAbsolutePath(),
+                secondFile.getAbsolutePath() );
+
+    assertThat( getSysout(), containsString( "Problem in file " + firstFile.getAbsolutePath() ) );
+    assertFalse( getSysout().contains( secondFile.getAbsolutePath() ) );
+  }
+
+  @Test
+  public void status_withoutProblems() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File file = createTmpFile( "var a = 23;", "UTF-8" );
+
+    int status = runner.run( file.getAbsolutePath() );
+
+    assertEquals( JSLintRunner.STATUS_OK, status );
+  }
+
+  @Test
+  public void status_withProblems() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File validFile = createTmpFile( "var a = 23;", "UTF-8" );
+    File invalidFile = createTmpFile( "var a == 23;", "UTF-8" );
+
+    int status = runner.run( invalidFile.getAbsolutePath(), validFile.getAbsolutePath() );
+
+    assertEquals( JSLintRunner.STATUS_PROBLEMS, status );
+  }
+
+  @Test
+  public void status_withFailFast() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File firstFile = createTmpFile( "var a == 23;", "UTF-8" );
+    File secondFile = createTmpFile( "var a == 23;", "UTF-8" );
+
+    int status = runner.run( "--fail-fast",
+                             "--threads", "2",
+                             firstFile.getAbsolutePath(),
+                             secondFile.getAbsolutePath() );
+
+    assertEquals( JSLintRunner.STATUS_PROBLEMS, status );
+  }
+
+  @Test
+  public void status_withInvalidArguments() {
+    JSLintRunner runner = new JSLintRunner();
+
+    int status = runner.run();
+
+    assertEquals( JSLintRunner.STATUS_ERROR, status );
+  }
+
+  @Test
+  public void status_withInvalidLibrary() throws Exception {
+    JSLintRunner runner = new JSLintRunner();
+    File libraryFile = createTmpFile( "-- invalid --", "UTF-8" );
+    File jsFile = createTmpFile( "var a = 23;", "UTF-8" );
+
+    int status = runner.run( "--custom", libraryFile.getAbsolutePath(), jsFile.getAbsolutePath() );
+
+    assertEquals( JSLintRunner.STATUS_ERROR, status );
+  }
+
+  @Test
+  public void daemon_invalidPort() {
+    JSLintRunner runner = new JSLintRunner();
+
+    runner.run( "--daemon", "foo" );
+
+    assertThat( getSysout(), startsWith( "Invalid port: foo" ) );
+  }
+
   private String getSysout() {
     try {
       return sysout.toString( SYSOUT_ENCODING );
@@ -179,6 +399,40 @@ public class JSLintRunner_Test {
     }
   }
 
+  private static int countOccurrences( String string, String part ) {
+    int count = 0;
+    int index = string.indexOf( part );
+    while( index != -1 ) {
+      count++;
+      index = string.indexOf( part, index + part.length() );
+    }
+    return count;
+  }
+
+  private static File createTmpDirectory() throws IOException {
+    File directory = File.createTempFile( "jslint-test", ".dir" );
+    directory.delete();
+    directory.mkdir();
+    directory.deleteOnExit();
+    return directory;
+  }
+
+  private static File createFile( File directory, String path, String content )
+      throws IOException
+  {
+    File file = new File( directory, path );
+    file.getParentFile().mkdirs();
+    file.getParentFile().deleteOnExit();
+    FileOutputStream outputStream = new FileOutputStream( file );
+    try {
+      outputStream.write( content.getBytes( "UTF-8" ) );
+    } finally {
+      outputStream.close();
+    }
+    file.deleteOnExit();
+    return file;
+  }
+
   private static File createTmpFile( String content, String charset ) throws IOException {
     File file = File.createTempFile( "jslint-test", ".tmp" );
     FileOutputStream outputStream = new FileOutputStream( file );
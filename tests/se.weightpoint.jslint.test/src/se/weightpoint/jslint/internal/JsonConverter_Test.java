@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.EvaluatorException;
+import org.mozilla.javascript.NativeArray;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+import se.weightpoint.jslint.json.JsonArray;
+import se.weightpoint.jslint.json.JsonObject;
+import se.weightpoint.jslint.json.JsonValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+
+public class JsonConverter_Test {
+
+  private Context context;
+  private ScriptableObject scope;
+
+  @Before
+  public void setUp() {
+    context = Context.enter();
+    scope = context.initStandardObjects();
+  }
+
+  @After
+  public void tearDown() {
+    Context.exit();
+  }
+
+  @Test
+  public void toCanonicalString_sortsMembers() {
+    JsonObject object = new JsonObject().add( "b", 1 ).add( "a", new JsonObject().add( "d", true )
+                                                                                 .add( "c", "x" ) );
+
+    assertEquals( "{\"a\":{\"c\":\"x\",\"d\":true},\"b\":1}",
+                  JsonConverter.toCanonicalString( object ) );
+  }
+
+  @Test
+  public void toCanonicalString_keepsArrayOrder() {
+    JsonArray array = new JsonArray().add( 2 ).add( 1 );
+
+    assertEquals( "[2,1]", JsonConverter.toCanonicalString( array ) );
+  }
+
+  @Test
+  public void toJavaScript_literals() {
+    assertEquals( Boolean.TRUE, JsonConverter.toJavaScript( context, scope, JsonValue.TRUE ) );
+    assertEquals( "foo", JsonConverter.toJavaScript( context, scope, JsonValue.valueOf( "foo" ) ) );
+    assertEquals( Double.valueOf( 23 ),
+                  JsonConverter.toJavaScript( context, scope, JsonValue.valueOf( 23 ) ) );
+    assertNull( JsonConverter.toJavaScript( context, scope, JsonValue.NULL ) );
+  }
+
+  @Test
+  public void toJavaScript_object() {
+    JsonObject object = new JsonObject().add( "foo", true ).add( "bar", new JsonArray().add( 1 ) );
+
+    Scriptable result = ( Scriptable )JsonConverter.toJavaScript( context, scope, object );
+
+    assertEquals( Boolean.TRUE, result.get( "foo", result ) );
+    assertEquals( 1L, ( ( NativeArray )result.get( "bar", result ) ).getLength() );
+  }
+
+  @Test
+  public void toJavaScript_objectEvaluatesLikeLiteral() {
+    JsonObject object = new JsonObject().add( "indent", 2 )
+                                        .add( "predef", new JsonArray().add( "x" ) );
+    Object options = JsonConverter.toJavaScript( context, scope, object );
+    ScriptableObject.putProperty( scope, "opts", options );
+
+    String script = "opts.indent * 2 + opts.predef[0]";
+    Object result = context.evaluateString( scope, script, "test", 1, null );
+
+    assertEquals( "4x", result );
+  }
+
+  @Test( expected = EvaluatorException.class )
+  public void toJavaScript_sealsObjects() {
+    Object options = JsonConverter.toJavaScript( context, scope, new JsonObject() );
+    ScriptableObject.putProperty( scope, "opts", options );
+
+    context.evaluateString( scope, "opts.foo = 1;", "test", 1, null );
+  }
+
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+
+public class LibraryCache_Test {
+
+  private static final String FAKE_JSLINT = "JSLINT = function() { return true; };";
+
+  @After
+  public void tearDown() {
+    LibraryCache.clear();
+  }
+
+  @Test( expected = NullPointerException.class )
+  public void getLibrary_failsWithNull() {
+    LibraryCache.getLibrary( null );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void getLibrary_failsWithInvalidSource() {
+    LibraryCache.getLibrary( "cheese! :D" );
+  }
+
+  @Test
+  public void getLibrary_returnsSameInstanceForSameSource() {
+    JSLintLibrary library = LibraryCache.getLibrary( FAKE_JSLINT );
+
+    assertSame( library, LibraryCache.getLibrary( new String( FAKE_JSLINT ) ) );
+  }
+
+  @Test
+  public void getLibrary_returnsDifferentInstanceForDifferentSource() {
+    JSLintLibrary library = LibraryCache.getLibrary( FAKE_JSLINT );
+
+    assertNotSame( library, LibraryCache.getLibrary( FAKE_JSLINT + " " ) );
+  }
+
+  @Test
+  public void getLibrary_evictsLeastRecentlyUsed() {
+    JSLintLibrary library = LibraryCache.getLibrary( FAKE_JSLINT );
+    for( int i = 0; i < 4; i++ ) {
+      LibraryCache.getLibrary( FAKE_JSLINT + "// " + i );
+    }
+
+    assertNotSame( library, LibraryCache.getLibrary( FAKE_JSLINT ) );
+  }
+
+  @Test
+  public void checksum() {
+    JSLintLibrary library = LibraryCache.getLibrary( FAKE_JSLINT );
+
+    assertEquals( 40, library.getChecksum().length() );
+    assertEquals( LibraryCache.createChecksum( FAKE_JSLINT ), library.getChecksum() );
+    assertFalse( library.getChecksum().equals( LibraryCache.createChecksum( "" ) ) );
+  }
+
+}
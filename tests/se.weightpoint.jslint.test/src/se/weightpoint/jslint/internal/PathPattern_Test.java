@@ -8,13 +8,12 @@
  * Contributors:
  *    Ralf Sternberg initial implementation and API
  ******************************************************************************/
-package se.weightpoint.jslint.ui.internal.preferences;
+package se.weightpoint.jslint.internal;
 
 import java.util.Arrays;
 
 import org.junit.Test;
 
-import se.weightpoint.jslint.ui.internal.preferences.PathPattern;
 import static org.junit.Assert.*;
 
 
@@ -180,6 +179,30 @@ public class PathPattern_Test {
     assertFalse( pattern.matchesFolder( "foo", "zoo", "moo", "bar" ) );
   }
 
+  @Test
+  public void multipleWildcardPaths() {
+    PathPattern pattern = PathPattern.create( "//a//b//c/*.js" );
+
+    assertTrue( pattern.matchesFolder( "a", "b", "c" ) );
+    assertTrue( pattern.matchesFolder( "x", "a", "y", "b", "z", "c" ) );
+    assertTrue( pattern.matchesFolder( "a", "b", "c", "a", "b", "c" ) );
+
+    assertFalse( pattern.matchesFolder( "a", "c", "b" ) );
+    assertFalse( pattern.matchesFolder( "a", "b", "c", "x" ) );
+  }
+
+  @Test
+  public void multipleWildcardPaths_withDeepPathThatDoesNotMatch() {
+    // exponential with a backtracking matcher
+    PathPattern pattern = PathPattern.create( "//a//a//a//a//a//a//a//a//a//a//b/" );
+    String[] segments = new String[ 60 ];
+    Arrays.fill( segments, "a" );
+
+    assertFalse( pattern.matchesFolder( segments ) );
+    segments[ segments.length - 1 ] = "b";
+    assertTrue( pattern.matchesFolder( segments ) );
+  }
+
   @Test
   public void tooManySuccessiveSlashes() {
     assertCreateFailsWithTooManySuccessiveSlashes( "///foo" );
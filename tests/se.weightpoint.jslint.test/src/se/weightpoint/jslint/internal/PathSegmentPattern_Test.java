@@ -8,11 +8,10 @@
  * Contributors:
  *    Ralf Sternberg initial implementation and API
  ******************************************************************************/
-package se.weightpoint.jslint.ui.internal.preferences;
+package se.weightpoint.jslint.internal;
 
 import org.junit.Test;
 
-import se.weightpoint.jslint.ui.internal.preferences.PathSegmentPattern;
 import static org.junit.Assert.*;
 
 
@@ -116,6 +115,58 @@ public class PathSegmentPattern_Test {
     assertFalse( pattern.matches( "xfoo" ) );
   }
 
+  @Test
+  public void multipleAsterisks() {
+    PathSegmentPattern pattern = PathSegmentPattern.create( "a*b*c" );
+
+    assertTrue( pattern.matches( "abc" ) );
+    assertTrue( pattern.matches( "axxbyyc" ) );
+    assertTrue( pattern.matches( "abbcbc" ) );
+
+    assertFalse( pattern.matches( "acb" ) );
+    assertFalse( pattern.matches( "abcx" ) );
+    assertFalse( pattern.matches( "xabc" ) );
+  }
+
+  @Test
+  public void multipleAsterisks_requireBacktracking() {
+    PathSegmentPattern pattern = PathSegmentPattern.create( "*a*ab" );
+
+    assertTrue( pattern.matches( "aaab" ) );
+    assertTrue( pattern.matches( "xaxaab" ) );
+
+    assertFalse( pattern.matches( "aaba" ) );
+    assertFalse( pattern.matches( "ab" ) );
+  }
+
+  @Test
+  public void asteriskAndQuestionTag() {
+    PathSegmentPattern pattern = PathSegmentPattern.create( "?*.j?" );
+
+    assertTrue( pattern.matches( "a.js" ) );
+    assertTrue( pattern.matches( "test.js" ) );
+
+    assertFalse( pattern.matches( ".js" ) );
+    assertFalse( pattern.matches( "a.jsx" ) );
+  }
+
+  @Test
+  public void asterisk_doesNotMatchOverlappingPrefixAndSuffix() {
+    PathSegmentPattern pattern = PathSegmentPattern.create( "ab*ba" );
+
+    assertTrue( pattern.matches( "abba" ) );
+
+    assertFalse( pattern.matches( "aba" ) );
+  }
+
+  @Test
+  public void matchesCharSequence() {
+    PathSegmentPattern pattern = PathSegmentPattern.create( "*.js" );
+
+    assertTrue( pattern.matches( new StringBuilder( "test.js" ) ) );
+    assertFalse( pattern.matches( new StringBuilder( "test.txt" ) ) );
+  }
+
   @Test
   public void questionTag_atStart() {
     PathSegmentPattern pattern = PathSegmentPattern.create( "?a" );
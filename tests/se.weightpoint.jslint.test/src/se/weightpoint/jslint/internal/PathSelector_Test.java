@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+public class PathSelector_Test {
+
+  private static final String[] ROOT = new String[ 0 ];
+
+  private static final String[] EXPRESSIONS = new String[] {
+    "",
+    "/",
+    "//",
+    "*.js",
+    "/*.js",
+    "//*.js",
+    "src/",
+    "/src/*.js",
+    "src//",
+    "src//*.min.js",
+    "//lib/",
+    "//lib//test?.js",
+    "/foo/*/bar/",
+    "foo//bar/*.js",
+    "//a//b//",
+    "x*y/"
+  };
+
+  private static final String[][] FOLDERS = new String[][] {
+    {},
+    { "src" },
+    { "lib" },
+    { "src", "lib" },
+    { "src", "lib", "x" },
+    { "foo", "bar" },
+    { "foo", "x", "bar" },
+    { "foo", "x", "y", "bar" },
+    { "a", "b" },
+    { "x", "a", "y", "b", "z" },
+    { "xzy" },
+    { "b", "a" }
+  };
+
+  private static final String[] FILES = new String[] {
+    "test.js",
+    "test1.js",
+    "test.min.js",
+    "test.txt",
+    ""
+  };
+
+  @Test
+  public void noPatterns_selectsNothing() {
+    PathSelector selector = createSelector( list(), list() );
+
+    assertFalse( selector.hasIncludePatterns() );
+    assertFalse( selector.selectsFile( ROOT, "test.js" ) );
+  }
+
+  @Test
+  public void onlyExcludePatterns_selectsNothing() {
+    PathSelector selector = createSelector( list(), list( "//*.txt" ) );
+
+    assertFalse( selector.hasIncludePatterns() );
+    assertFalse( selector.selectsFile( ROOT, "test.js" ) );
+  }
+
+  @Test
+  public void includePattern() {
+    PathSelector selector = createSelector( list( "//*.js" ), list() );
+
+    assertTrue( selector.hasIncludePatterns() );
+    assertTrue( selector.selectsFile( ROOT, "test.js" ) );
+    assertTrue( selector.selectsFile( array( "src", "lib" ), "test.js" ) );
+    assertFalse( selector.selectsFile( ROOT, "test.txt" ) );
+  }
+
+  @Test
+  public void excludePattern() {
+    PathSelector selector = createSelector( list( "//*.js" ), list( "lib/", "//*.min.js" ) );
+
+    assertTrue( selector.selectsFile( array( "src" ), "test.js" ) );
+    assertTrue( selector.selectsFile( array( "lib", "sub" ), "test.js" ) );
+    assertFalse( selector.selectsFile( array( "lib" ), "test.js" ) );
+    assertFalse( selector.selectsFile( array( "src" ), "test.min.js" ) );
+  }
+
+  @Test
+  public void sameFilePatternInIncludeAndExclude() {
+    PathSelector selector = createSelector( list( "//*.js" ), list( "lib//*.js" ) );
+
+    assertTrue( selector.selectsFile( array( "src" ), "test.js" ) );
+    assertFalse( selector.selectsFile( array( "lib", "sub" ), "test.js" ) );
+  }
+
+  @Test
+  public void selectsFolder_withoutIncludePatterns() {
+    PathSelector selector = createSelector( list(), list() );
+
+    assertFalse( selector.selectsFolder( ROOT ) );
+  }
+
+  @Test
+  public void selectsFolder_whenIncluded() {
+    PathSelector selector = createSelector( list( "/src/lib/*.js" ), list() );
+
+    assertTrue( selector.selectsFolder( ROOT ) );
+    assertTrue( selector.selectsFolder( array( "src" ) ) );
+    assertTrue( selector.selectsFolder( array( "src", "lib" ) ) );
+    assertFalse( selector.selectsFolder( array( "bin" ) ) );
+    assertFalse( selector.selectsFolder( array( "src", "lib", "sub" ) ) );
+  }
+
+  @Test
+  public void selectsFolder_whenExcludedWithoutSubFolders() {
+    PathSelector selector = createSelector( list( "//*.js" ), list( "lib/" ) );
+
+    assertTrue( selector.selectsFolder( array( "lib" ) ) );
+  }
+
+  @Test
+  public void selectsFolder_whenSubtreeExcluded() {
+    PathSelector selector = createSelector( list( "//*.js" ), list( "//node_modules//" ) );
+
+    assertTrue( selector.selectsFolder( array( "src" ) ) );
+    assertFalse( selector.selectsFolder( array( "node_modules" ) ) );
+    assertFalse( selector.selectsFolder( array( "src", "node_modules", "foo" ) ) );
+  }
+
+  @Test
+  public void selectsFolder_whenSubtreePartiallyExcluded() {
+    PathSelector selector = createSelector( list( "//*.js" ), list( "lib//*.min.js" ) );
+
+    assertTrue( selector.selectsFolder( array( "lib" ) ) );
+  }
+
+  @Test
+  public void agreesWithPatterns_forSinglePatterns() {
+    for( String include : EXPRESSIONS ) {
+      assertAgreesWithPatterns( list( include ), list() );
+      for( String exclude : EXPRESSIONS ) {
+        assertAgreesWithPatterns( list( include ), list( exclude ) );
+      }
+    }
+  }
+
+  @Test
+  public void agreesWithPatterns_forManyPatterns() {
+    // more than 64 states in total
+    List<String> includes = new ArrayList<String>();
+    List<String> excludes = new ArrayList<String>();
+    for( int i = 0; i < EXPRESSIONS.length; i++ ) {
+      includes.add( EXPRESSIONS[ i ] );
+      excludes.add( EXPRESSIONS[ EXPRESSIONS.length - i - 1 ] + "*1.js" );
+      String expression = EXPRESSIONS[ i ];
+      excludes.add( "/x/y/z" + ( expression.startsWith( "/" ) ? "" : "/" ) + expression );
+    }
+
+    assertAgreesWithPatterns( includes, list( "//*.txt" ) );
+    assertAgreesWithPatterns( includes.subList( 6, 16 ), excludes );
+  }
+
+  private static void assertAgreesWithPatterns( List<String> includes, List<String> excludes ) {
+    PathSelector selector = createSelector( includes, excludes );
+    for( String[] folder : FOLDERS ) {
+      for( String file : FILES ) {
+        boolean expected =    matchesAny( includes, folder, file )
+                           && !matchesAny( excludes, folder, file );
+        String message = includes + " - " + excludes + ": " + Arrays.toString( folder ) + file;
+        assertEquals( message, expected, selector.selectsFile( folder, file ) );
+        if( expected ) {
+          assertTrue( message, selectsAllParents( selector, folder ) );
+        }
+      }
+    }
+  }
+
+  private static boolean selectsAllParents( PathSelector selector, String[] folder ) {
+    for( int i = 0; i <= folder.length; i++ ) {
+      if( !selector.selectsFolder( Arrays.asList( folder ).subList( 0, i ).toArray( ROOT ) ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean matchesAny( List<String> expressions, String[] folder, String file ) {
+    for( String expression : expressions ) {
+      PathPattern pattern = PathPattern.create( expression );
+      if( pattern.matchesFolder( folder ) && pattern.matchesFile( file ) ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static PathSelector createSelector( List<String> includes, List<String> excludes ) {
+    return PathSelector.create( createPatterns( includes ), createPatterns( excludes ) );
+  }
+
+  private static List<PathPattern> createPatterns( List<String> expressions ) {
+    List<PathPattern> patterns = new ArrayList<PathPattern>();
+    for( String expression : expressions ) {
+      patterns.add( PathPattern.create( expression ) );
+    }
+    return patterns;
+  }
+
+  private static List<String> list( String... strings ) {
+    return Arrays.asList( strings );
+  }
+
+  private static String[] array( String... strings ) {
+    return strings;
+  }
+
+}
@@ -77,4 +77,16 @@ public class BuilderUtil_Test {
     assertFalse( result );
   }
 
+  @Test
+  public void hasBuilder() throws CoreException {
+    BuilderUtil.addBuilderToProject( project, TestUtil.BUILDER_ID );
+
+    assertTrue( BuilderUtil.hasBuilder( project, TestUtil.BUILDER_ID ) );
+  }
+
+  @Test
+  public void hasBuilder_withoutBuilder() throws CoreException {
+    assertFalse( BuilderUtil.hasBuilder( project, TestUtil.BUILDER_ID ) );
+  }
+
 }
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.builder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.prefs.BackingStoreException;
+import org.osgi.service.prefs.Preferences;
+
+import se.weightpoint.jslint.ui.internal.builder.FileChecker.CheckResult;
+import se.weightpoint.jslint.ui.internal.preferences.OptionsPreferences;
+import se.weightpoint.jslint.ui.internal.preferences.PreferencesFactory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.weightpoint.jslint.ui.test.TestUtil.*;
+
+
+public class FileChecker_Test {
+
+  private IProject project;
+  private IProgressMonitor monitor;
+  private ResultCache cache;
+
+  @Before
+  public void setUp() throws BackingStoreException {
+    PreferencesFactory.getWorkspacePreferences().clear();
+    project = createProject( "test" );
+    monitor = new NullProgressMonitor();
+    cache = new ResultCache( null, 100 );
+  }
+
+  @After
+  public void tearDown() {
+    deleteProject( project );
+  }
+
+  @Test
+  public void check_withoutFiles() throws CoreException {
+    FileChecker checker = new FileChecker( project, 1, cache );
+
+    List<CheckResult> results = checker.check( new ArrayList<IFile>(), monitor );
+
+    assertTrue( results.isEmpty() );
+  }
+
+  @Test
+  public void check_returnsProblems() throws CoreException {
+    List<IFile> files = new ArrayList<IFile>();
+    files.add( createFile( project, "/test.js", "var x = 23 == null;" ) );
+
+    List<CheckResult> results = new FileChecker( project, 1, cache ).check( files, monitor );
+
+    assertEquals( 1, results.size() );
+    assertSame( files.get( 0 ), results.get( 0 ).file );
+    assertEquals( 1, results.get( 0 ).problems.size() );
+  }
+
+  @Test
+  public void check_concurrently_keepsOrderOfFiles() throws CoreException {
+    List<IFile> files = new ArrayList<IFile>();
+    for( int i = 0; i < 10; i++ ) {
+      files.add( createFile( project, "/test" + i + ".js", createCode( i ) ) );
+    }
+
+    List<CheckResult> results = new FileChecker( project, 4, cache ).check( files, monitor );
+
+    assertEquals( 10, results.size() );
+    for( int i = 0; i < 10; i++ ) {
+      assertSame( files.get( i ), results.get( i ).file );
+      assertEquals( i, results.get( i ).problems.size() );
+    }
+  }
+
+  @Test
+  public void check_addsResultsToCache() throws CoreException {
+    List<IFile> files = new ArrayList<IFile>();
+    files.add( createFile( project, "/test.js", "var x = 23 == null;" ) );
+
+    new FileChecker( project, 1, cache ).check( files, monitor );
+
+    assertEquals( 1, cache.size() );
+  }
+
+  @Test
+  public void check_usesCachedResults() throws CoreException {
+    List<IFile> files = new ArrayList<IFile>();
+    files.add( createFile( project, "/test1.js", "var x = 23 == null;" ) );
+    files.add( createFile( project, "/test2.js", "var x = 23 == null;" ) );
+
+    List<CheckResult> results = new FileChecker( project, 1, cache ).check( files, monitor );
+
+    assertEquals( 1, cache.size() );
+    assertSame( results.get( 0 ).problems, results.get( 1 ).problems );
+  }
+
+  @Test
+  public void check_usesCachedResults_withReorderedOptions() throws CoreException {
+    List<IFile> files = new ArrayList<IFile>();
+    files.add( createFile( project, "/test.js", "var x = 23 == null;" ) );
+    Preferences workspaceNode = PreferencesFactory.getWorkspacePreferences();
+    OptionsPreferences options = new OptionsPreferences( workspaceNode );
+    options.setOptions( "white: true, node: true" );
+    new FileChecker( project, 1, cache ).check( files, monitor );
+
+    options.setOptions( "node: true, white: true" );
+    new FileChecker( project, 1, cache ).check( files, monitor );
+
+    assertEquals( 1, cache.size() );
+  }
+
+  @Test
+  public void check_skipsFilesWhenCancelled() throws CoreException {
+    List<IFile> files = new ArrayList<IFile>();
+    files.add( createFile( project, "/test.js", "var x = 23 == null;" ) );
+    monitor.setCanceled( true );
+
+    List<CheckResult> results = new FileChecker( project, 2, cache ).check( files, monitor );
+
+    assertTrue( results.isEmpty() );
+  }
+
+  private static String createCode( int problemCount ) {
+    StringBuilder builder = new StringBuilder();
+    for( int i = 0; i < problemCount; i++ ) {
+      builder.append( "var x" + i + " = 23 == null;\n" );
+    }
+    return builder.toString();
+  }
+
+}
@@ -10,8 +10,12 @@
  ******************************************************************************/
 package se.weightpoint.jslint.ui.internal.builder;
 
+import java.util.Arrays;
+
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -24,8 +28,11 @@ import org.osgi.service.prefs.Preferences;
 import se.weightpoint.jslint.ui.internal.builder.JSLintBuilderVisitor;
 import se.weightpoint.jslint.ui.internal.preferences.EnablementPreferences;
 import se.weightpoint.jslint.ui.internal.preferences.PreferencesFactory;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static se.weightpoint.jslint.ui.test.TestUtil.*;
 
 
@@ -91,9 +98,103 @@ public class JSLintBuilderVisitor_Test {
     assertFalse( visitor.visit( file ) );
   }
 
+  @Test
+  public void collectsIncludedFile() throws CoreException {
+    addIncludePattern( project, "/test.js" );
+    JSLintBuilderVisitor visitor = new JSLintBuilderVisitor( project, monitor );
+
+    visitor.visit( file );
+
+    assertEquals( Arrays.asList( file ), visitor.getSelectedFiles() );
+    assertTrue( visitor.getExcludedResources().isEmpty() );
+  }
+
+  @Test
+  public void collectsExcludedFile() throws CoreException {
+    addIncludePattern( project, "/foo.js" );
+    JSLintBuilderVisitor visitor = new JSLintBuilderVisitor( project, monitor );
+
+    visitor.visit( file );
+
+    assertTrue( visitor.getSelectedFiles().isEmpty() );
+    assertEquals( Arrays.asList( file ), visitor.getExcludedResources() );
+  }
+
+  @Test
+  public void skipsAndCollectsExcludedFolder() throws CoreException {
+    IFolder folder = createFolder( project, "lib" );
+    addIncludePattern( project, "//*.js" );
+    addExcludePattern( project, "lib//" );
+    JSLintBuilderVisitor visitor = new JSLintBuilderVisitor( project, monitor );
+
+    assertFalse( visitor.visit( folder ) );
+    assertEquals( Arrays.asList( folder ), visitor.getExcludedResources() );
+  }
+
+  @Test
+  public void collectsAddedFile() throws CoreException {
+    addIncludePattern( project, "/test.js" );
+    JSLintBuilderVisitor visitor = new JSLintBuilderVisitor( project, monitor );
+
+    assertTrue( visitor.visit( mockDelta( IResourceDelta.ADDED, 0 ) ) );
+    assertEquals( Arrays.asList( file ), visitor.getSelectedFiles() );
+  }
+
+  @Test
+  public void collectsFileWithChangedContent() throws CoreException {
+    addIncludePattern( project, "/test.js" );
+    JSLintBuilderVisitor visitor = new JSLintBuilderVisitor( project, monitor );
+
+    visitor.visit( mockDelta( IResourceDelta.CHANGED, IResourceDelta.CONTENT ) );
+
+    assertEquals( Arrays.asList( file ), visitor.getSelectedFiles() );
+  }
+
+  @Test
+  public void collectsFileWithChangedEncoding() throws CoreException {
+    addIncludePattern( project, "/test.js" );
+    JSLintBuilderVisitor visitor = new JSLintBuilderVisitor( project, monitor );
+
+    visitor.visit( mockDelta( IResourceDelta.CHANGED, IResourceDelta.ENCODING ) );
+
+    assertEquals( Arrays.asList( file ), visitor.getSelectedFiles() );
+  }
+
+  @Test
+  public void skipsFileWithChangedMarkers() throws CoreException {
+    addIncludePattern( project, "/test.js" );
+    JSLintBuilderVisitor visitor = new JSLintBuilderVisitor( project, monitor );
+
+    assertFalse( visitor.visit( mockDelta( IResourceDelta.CHANGED, IResourceDelta.MARKERS ) ) );
+    assertTrue( visitor.getSelectedFiles().isEmpty() );
+    assertTrue( visitor.getExcludedResources().isEmpty() );
+  }
+
+  @Test
+  public void skipsRemovedFile() throws CoreException {
+    addIncludePattern( project, "/test.js" );
+    JSLintBuilderVisitor visitor = new JSLintBuilderVisitor( project, monitor );
+
+    assertFalse( visitor.visit( mockDelta( IResourceDelta.REMOVED, 0 ) ) );
+    assertTrue( visitor.getSelectedFiles().isEmpty() );
+  }
+
+  private IResourceDelta mockDelta( int kind, int flags ) {
+    IResourceDelta delta = mock( IResourceDelta.class );
+    when( delta.getResource() ).thenReturn( file );
+    when( Integer.valueOf( delta.getKind() ) ).thenReturn( Integer.valueOf( kind ) );
+    when( Integer.valueOf( delta.getFlags() ) ).thenReturn( Integer.valueOf( flags ) );
+    return delta;
+  }
+
   private void addIncludePattern( IProject project, String... pattern ) {
     Preferences projectPrefsNode = PreferencesFactory.getProjectPreferences( project );
     new EnablementPreferences( projectPrefsNode ).setIncludePatterns( list( pattern ) );
   }
 
+  private void addExcludePattern( IProject project, String... pattern ) {
+    Preferences projectPrefsNode = PreferencesFactory.getProjectPreferences( project );
+    new EnablementPreferences( projectPrefsNode ).setExcludePatterns( list( pattern ) );
+  }
+
 }
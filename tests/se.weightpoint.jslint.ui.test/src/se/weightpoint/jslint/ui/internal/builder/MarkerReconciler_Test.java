@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.builder;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static se.weightpoint.jslint.ui.test.TestUtil.*;
+
+
+public class MarkerReconciler_Test {
+
+  private static final String TYPE_PROBLEM = "se.weightpoint.jslint.ui.problemmarker";
+  private static final String TYPE_PROBLEM_OLD = "se.weightpoint.jslint.problemmarker";
+  private static final String TEST_PROJECT = "jslint.ui.test.project";
+  private IProject project;
+  private IFile file;
+
+  @Before
+  public void setUp() {
+    project = createProject( TEST_PROJECT );
+    file = createFile( project, "/test.js", "test" );
+  }
+
+  @After
+  public void tearDown() {
+    deleteProject( project );
+  }
+
+  @Test
+  public void keepsExistingMarker() throws CoreException {
+    new MarkerAdapter( file ).createMarker( 1, 3, 3, "foo" );
+    long id = findMarkers( file )[ 0 ].getId();
+
+    MarkerReconciler reconciler = new MarkerReconciler( file );
+    reconciler.createMarker( 1, 3, 3, "foo" );
+    reconciler.removeObsoleteMarkers();
+
+    IMarker[] markers = findMarkers( file );
+    assertEquals( 1, markers.length );
+    assertEquals( id, markers[ 0 ].getId() );
+  }
+
+  @Test
+  public void keepsExistingMarkerWithoutLine() throws CoreException {
+    new MarkerAdapter( file ).createMarker( -1, -1, -1, "foo" );
+    long id = findMarkers( file )[ 0 ].getId();
+
+    MarkerReconciler reconciler = new MarkerReconciler( file );
+    reconciler.createMarker( -1, -1, -1, "foo" );
+    reconciler.removeObsoleteMarkers();
+
+    assertEquals( id, findMarkers( file )[ 0 ].getId() );
+  }
+
+  @Test
+  public void createsMarkerForNewProblem() throws CoreException {
+    new MarkerAdapter( file ).createMarker( 1, 3, 3, "foo" );
+
+    MarkerReconciler reconciler = new MarkerReconciler( file );
+    reconciler.createMarker( 1, 3, 3, "foo" );
+    reconciler.createMarker( 2, 7, 7, "bar" );
+    reconciler.removeObsoleteMarkers();
+
+    assertEquals( 2, findMarkers( file ).length );
+  }
+
+  @Test
+  public void removesMarkerOfDisappearedProblem() throws CoreException {
+    new MarkerAdapter( file ).createMarker( 1, 3, 3, "foo" );
+    new MarkerAdapter( file ).createMarker( 2, 7, 7, "bar" );
+
+    MarkerReconciler reconciler = new MarkerReconciler( file );
+    reconciler.createMarker( 2, 7, 7, "bar" );
+    reconciler.removeObsoleteMarkers();
+
+    IMarker[] markers = findMarkers( file );
+    assertEquals( 1, markers.length );
+    assertEquals( "bar", markers[ 0 ].getAttribute( IMarker.MESSAGE ) );
+  }
+
+  @Test
+  public void replacesMarkerWithChangedPosition() throws CoreException {
+    new MarkerAdapter( file ).createMarker( 1, 3, 3, "foo" );
+    long id = findMarkers( file )[ 0 ].getId();
+
+    MarkerReconciler reconciler = new MarkerReconciler( file );
+    reconciler.createMarker( 1, 4, 4, "foo" );
+    reconciler.removeObsoleteMarkers();
+
+    IMarker[] markers = findMarkers( file );
+    assertEquals( 1, markers.length );
+    assertFalse( id == markers[ 0 ].getId() );
+  }
+
+  @Test
+  public void matchesDuplicateProblems() throws CoreException {
+    new MarkerAdapter( file ).createMarker( 1, 3, 3, "foo" );
+    new MarkerAdapter( file ).createMarker( 1, 3, 3, "foo" );
+
+    MarkerReconciler reconciler = new MarkerReconciler( file );
+    reconciler.createMarker( 1, 3, 3, "foo" );
+    reconciler.removeObsoleteMarkers();
+
+    assertEquals( 1, findMarkers( file ).length );
+  }
+
+  @Test
+  public void removesOldMarkers() throws CoreException {
+    file.createMarker( TYPE_PROBLEM_OLD );
+
+    new MarkerReconciler( file ).removeObsoleteMarkers();
+
+    IMarker[] markers = file.findMarkers( TYPE_PROBLEM_OLD, true, IResource.DEPTH_ZERO );
+    assertEquals( 0, markers.length );
+  }
+
+  private static IMarker[] findMarkers( IResource resource ) throws CoreException {
+    return resource.findMarkers( TYPE_PROBLEM, true, IResource.DEPTH_INFINITE );
+  }
+
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.builder;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.jobs.Job;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.prefs.BackingStoreException;
+import org.osgi.service.prefs.Preferences;
+
+import se.weightpoint.jslint.ui.internal.preferences.EnablementPreferences;
+import se.weightpoint.jslint.ui.internal.preferences.PreferencesFactory;
+import static org.junit.Assert.assertEquals;
+import static se.weightpoint.jslint.ui.internal.builder.MarkerAdapter.TYPE_PROBLEM;
+import static se.weightpoint.jslint.ui.test.TestUtil.*;
+
+
+public class RecheckJob_Test {
+
+  private IProject project;
+  private IFile file;
+  private RecheckJob job;
+
+  @Before
+  public void setUp() throws BackingStoreException {
+    PreferencesFactory.getWorkspacePreferences().clear();
+    project = createProject( "test" );
+    file = createFile( project, "/test.js", "var x = 23 == null;" );
+    job = new RecheckJob();
+  }
+
+  @After
+  public void tearDown() {
+    deleteProject( project );
+  }
+
+  @Test
+  public void coalescesRequests() {
+    job.addProjects( project );
+    job.addProjects( project );
+
+    assertEquals( Job.SLEEPING, job.getState() );
+  }
+
+  @Test
+  public void createsMarkers() throws Exception {
+    BuilderUtil.addBuilderToProject( project, BUILDER_ID );
+    addIncludePattern( project, "/test.js" );
+    new MarkerAdapter( file ).removeMarkers();
+
+    job.addProjects( project );
+    waitForJobs();
+
+    assertEquals( 1, findMarkers( file ).length );
+  }
+
+  @Test
+  public void removesMarkersWithoutBuilder() throws Exception {
+    addIncludePattern( project, "/test.js" );
+    new MarkerAdapter( file ).createMarker( 1, 0, 0, "problem" );
+
+    job.addProjects( project );
+    waitForJobs();
+
+    assertEquals( 0, findMarkers( file ).length );
+  }
+
+  @Test
+  public void removesMarkersWithoutIncludePatterns() throws Exception {
+    BuilderUtil.addBuilderToProject( project, BUILDER_ID );
+    new MarkerAdapter( file ).createMarker( 1, 0, 0, "problem" );
+
+    job.addProjects( project );
+    waitForJobs();
+
+    assertEquals( 0, findMarkers( file ).length );
+  }
+
+  @Test
+  public void ignoresClosedProject() throws Exception {
+    project.close( null );
+
+    job.addProjects( project );
+    waitForJobs();
+
+    assertEquals( 0, Job.getJobManager().find( RecheckJob.FAMILY ).length );
+  }
+
+  private void waitForJobs() throws InterruptedException {
+    job.join();
+    Job.getJobManager().join( RecheckJob.FAMILY, null );
+  }
+
+  private static void addIncludePattern( IProject project, String... pattern ) {
+    Preferences projectPrefsNode = PreferencesFactory.getProjectPreferences( project );
+    new EnablementPreferences( projectPrefsNode ).setIncludePatterns( list( pattern ) );
+  }
+
+  private static IMarker[] findMarkers( IResource resource ) throws CoreException {
+    return resource.findMarkers( TYPE_PROBLEM, true, IResource.DEPTH_INFINITE );
+  }
+
+}
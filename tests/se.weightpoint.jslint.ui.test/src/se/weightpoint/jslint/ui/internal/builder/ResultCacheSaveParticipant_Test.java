@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.builder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.eclipse.core.resources.ISaveContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.weightpoint.jslint.Problem;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class ResultCacheSaveParticipant_Test {
+
+  private File file;
+  private ResultCache cache;
+  private ResultCacheSaveParticipant participant;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile( "results", ".json" );
+    file.delete();
+    cache = new ResultCache( file, 3 );
+    participant = new ResultCacheSaveParticipant( cache );
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void saving_fullSave_writesModifiedCache() {
+    cache.put( "foo", new ArrayList<Problem>() );
+
+    participant.saving( createContext( ISaveContext.FULL_SAVE ) );
+
+    assertEquals( 1, new ResultCache( file, 3 ).size() );
+  }
+
+  @Test
+  public void saving_snapshot_writesModifiedCache() {
+    cache.put( "foo", new ArrayList<Problem>() );
+
+    participant.saving( createContext( ISaveContext.SNAPSHOT ) );
+
+    assertTrue( file.exists() );
+  }
+
+  @Test
+  public void saving_projectSave_doesNotWriteCache() {
+    cache.put( "foo", new ArrayList<Problem>() );
+
+    participant.saving( createContext( ISaveContext.PROJECT_SAVE ) );
+
+    assertFalse( file.exists() );
+  }
+
+  @Test
+  public void saving_doesNotWriteUnmodifiedCache() {
+    participant.saving( createContext( ISaveContext.FULL_SAVE ) );
+
+    assertFalse( file.exists() );
+  }
+
+  @Test
+  public void save_writesModifiedCache() {
+    cache.put( "foo", new ArrayList<Problem>() );
+
+    participant.save();
+
+    assertTrue( file.exists() );
+  }
+
+  private static ISaveContext createContext( int kind ) {
+    ISaveContext context = mock( ISaveContext.class );
+    when( Integer.valueOf( context.getKind() ) ).thenReturn( Integer.valueOf( kind ) );
+    return context;
+  }
+
+}
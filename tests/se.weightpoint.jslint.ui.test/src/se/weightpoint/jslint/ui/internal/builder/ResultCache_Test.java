@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.builder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.weightpoint.jslint.Problem;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class ResultCache_Test {
+
+  private File file;
+  private ResultCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile( "results", ".json" );
+    file.delete();
+    cache = new ResultCache( file, 3 );
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void createKey_isStable() {
+    assertEquals( ResultCache.createKey( "ctx", "content" ),
+                  ResultCache.createKey( "ctx", "content" ) );
+  }
+
+  @Test
+  public void createKey_dependsOnContext() {
+    assertFalse( ResultCache.createKey( "ctx1", "content" )
+                   .equals( ResultCache.createKey( "ctx2", "content" ) ) );
+  }
+
+  @Test
+  public void createKey_dependsOnContent() {
+    assertFalse( ResultCache.createKey( "ctx", "content1" )
+                   .equals( ResultCache.createKey( "ctx", "content2" ) ) );
+  }
+
+  @Test
+  public void get_withoutEntry() {
+    assertNull( cache.get( "foo" ) );
+  }
+
+  @Test
+  public void get_returnsCopyOfProblems() {
+    cache.put( "foo", problems( new TestProblem( 1, 2, "foo" ) ) );
+
+    List<Problem> result = cache.get( "foo" );
+
+    assertEquals( 1, result.size() );
+    assertProblemEquals( 1, 2, "foo", result.get( 0 ) );
+  }
+
+  @Test
+  public void put_evictsLeastRecentlyUsedEntry() {
+    cache.put( "a", problems() );
+    cache.put( "b", problems() );
+    cache.put( "c", problems() );
+    cache.get( "a" );
+
+    cache.put( "d", problems() );
+
+    assertEquals( 3, cache.size() );
+    assertNull( cache.get( "b" ) );
+  }
+
+  @Test
+  public void save_persistsEntries() throws IOException {
+    cache.put( "foo", problems( new TestProblem( 1, 2, "foo" ), new TestProblem( 3, 4, "bar" ) ) );
+    cache.put( "bar", problems() );
+
+    cache.save();
+    ResultCache loaded = new ResultCache( file, 3 );
+
+    assertEquals( 2, loaded.size() );
+    assertTrue( loaded.get( "bar" ).isEmpty() );
+    assertProblemEquals( 3, 4, "bar", loaded.get( "foo" ).get( 1 ) );
+  }
+
+  @Test
+  public void save_doesNotWriteUnmodifiedCache() throws IOException {
+    cache.save();
+
+    assertFalse( file.exists() );
+  }
+
+  @Test
+  public void load_ignoresCorruptFile() throws IOException {
+    FileOutputStream outputStream = new FileOutputStream( file );
+    outputStream.write( "{\"version\":1,\"entries\":[{".getBytes( "UTF-8" ) );
+    outputStream.close();
+
+    assertEquals( 0, cache.size() );
+  }
+
+  private static void assertProblemEquals( int line,
+                                           int character,
+                                           String message,
+                                           Problem problem )
+  {
+    assertEquals( line, problem.getLine() );
+    assertEquals( character, problem.getCharacter() );
+    assertEquals( message, problem.getMessage() );
+  }
+
+  private static List<Problem> problems( Problem... problems ) {
+    List<Problem> list = new ArrayList<Problem>();
+    for( Problem problem : problems ) {
+      list.add( problem );
+    }
+    return list;
+  }
+
+  private static class TestProblem implements Problem {
+
+    private final int line;
+    private final int character;
+    private final String message;
+
+    public TestProblem( int line, int character, String message ) {
+      this.line = line;
+      this.character = character;
+      this.message = message;
+    }
+
+    public int getLine() {
+      return line;
+    }
+
+    public int getCharacter() {
+      return character;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+  }
+
+}
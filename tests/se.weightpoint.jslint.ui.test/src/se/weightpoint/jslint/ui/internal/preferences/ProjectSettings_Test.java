@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2013 EclipseSource.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Ralf Sternberg - initial implementation and API
+ ******************************************************************************/
+package se.weightpoint.jslint.ui.internal.preferences;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.prefs.BackingStoreException;
+import org.osgi.service.prefs.Preferences;
+
+import static org.junit.Assert.*;
+import static se.weightpoint.jslint.ui.test.TestUtil.*;
+
+
+public class ProjectSettings_Test {
+
+  private IProject project;
+  private Preferences projectNode;
+  private Preferences workspaceNode;
+
+  @Before
+  public void setUp() throws BackingStoreException {
+    workspaceNode = PreferencesFactory.getWorkspacePreferences();
+    workspaceNode.clear();
+    project = createProject( "test" );
+    projectNode = PreferencesFactory.getProjectPreferences( project );
+  }
+
+  @After
+  public void tearDown() throws BackingStoreException {
+    deleteProject( project );
+    workspaceNode.clear();
+  }
+
+  @Test
+  public void defaultSettings() {
+    ProjectSettings settings = ProjectSettings.get( project );
+
+    assertFalse( settings.getSelector().allowVisitProject() );
+    assertEquals( "{}", settings.getConfiguration().toString() );
+    assertNull( settings.getCustomLibPath() );
+  }
+
+  @Test
+  public void isCached() {
+    ProjectSettings settings = ProjectSettings.get( project );
+
+    assertSame( settings, ProjectSettings.get( project ) );
+  }
+
+  @Test
+  public void isDiscardedWhenProjectPreferencesChange() {
+    ProjectSettings settings = ProjectSettings.get( project );
+
+    new EnablementPreferences( projectNode ).setIncludePatterns( list( "//*.js" ) );
+
+    ProjectSettings newSettings = ProjectSettings.get( project );
+    assertNotSame( settings, newSettings );
+    assertTrue( newSettings.getSelector().allowVisitProject() );
+  }
+
+  @Test
+  public void isDiscardedWhenWorkspacePreferencesChange() {
+    ProjectSettings settings = ProjectSettings.get( project );
+
+    new OptionsPreferences( workspaceNode ).setOptions( "white: true" );
+
+    ProjectSettings newSettings = ProjectSettings.get( project );
+    assertNotSame( settings, newSettings );
+    assertEquals( "{\"white\":true}", newSettings.getConfiguration().toString() );
+  }
+
+  @Test
+  public void isDiscardedWhenCustomLibChanges() throws CoreException {
+    ProjectSettings settings = ProjectSettings.get( project );
+
+    JSLintPreferences globalPrefs = new JSLintPreferences();
+    globalPrefs.setUseCustomLib( true );
+    globalPrefs.setCustomLibPath( "/path/to/jslint.js" );
+    globalPrefs.save();
+
+    ProjectSettings newSettings = ProjectSettings.get( project );
+    assertNotSame( settings, newSettings );
+    assertEquals( "/path/to/jslint.js", newSettings.getCustomLibPath() );
+  }
+
+  @Test
+  public void usesProjectSpecificConfiguration() {
+    new OptionsPreferences( workspaceNode ).setOptions( "white: true" );
+    OptionsPreferences projectPreferences = new OptionsPreferences( projectNode );
+    projectPreferences.setProjectSpecific( true );
+    projectPreferences.setOptions( "node: true" );
+
+    ProjectSettings settings = ProjectSettings.get( project );
+
+    assertEquals( "{\"node\":true}", settings.getConfiguration().toString() );
+  }
+
+  @Test
+  public void isDiscardedWhenProjectIsDeleted() {
+    new EnablementPreferences( projectNode ).setIncludePatterns( list( "//*.js" ) );
+    ProjectSettings.get( project );
+
+    deleteProject( project );
+    project = createProject( "test" );
+
+    assertFalse( ProjectSettings.get( project ).getSelector().allowVisitProject() );
+  }
+
+}
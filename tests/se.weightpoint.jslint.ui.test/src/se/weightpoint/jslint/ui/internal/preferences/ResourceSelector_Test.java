@@ -100,6 +100,33 @@ public class ResourceSelector_Test {
     assertTrue( selector.allowVisitFolder( src ) );
   }
 
+  @Test
+  public void allowVisitFolder_falseWhenNotIncluded() {
+    preferences.setIncludePatterns( list( "/src/" ) );
+    ResourceSelector selector = new ResourceSelector( project );
+
+    assertFalse( selector.allowVisitFolder( createFolder( project, "bin" ) ) );
+  }
+
+  @Test
+  public void allowVisitFolder_trueWhenIncludedAtAnyDepth() {
+    preferences.setIncludePatterns( list( "//lib/*.js" ) );
+    ResourceSelector selector = new ResourceSelector( project );
+
+    assertTrue( selector.allowVisitFolder( src ) );
+  }
+
+  @Test
+  public void allowVisitFolder_falseWhenSubtreeExcluded() {
+    preferences.setIncludePatterns( list( "//*.js" ) );
+    preferences.setExcludePatterns( list( "//node_modules//" ) );
+    createFolder( project, "src/node_modules" );
+    ResourceSelector selector = new ResourceSelector( project );
+
+    assertTrue( selector.allowVisitFolder( src ) );
+    assertFalse( selector.allowVisitFolder( project.getFolder( "src/node_modules" ) ) );
+  }
+
   @Test
   public void allowVisitFile_falseByDefault() {
     ResourceSelector selector = new ResourceSelector( project );